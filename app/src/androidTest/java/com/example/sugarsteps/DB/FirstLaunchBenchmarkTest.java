@@ -0,0 +1,119 @@
+package com.example.sugarsteps.DB;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sugarsteps.lesson.LessonSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cold-install time-to-first-lesson: from building the database on a device without
+ * a database file until the lesson list query emits its first non-empty result.
+ *
+ * Runs both first-launch paths: copying the prebuilt asset, and creating an empty database
+ * seeded by the callback. Results are logged under the "FirstLaunchBenchmark" tag and
+ * reported as instrumentation status.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class FirstLaunchBenchmarkTest {
+
+    private static final String TAG = "FirstLaunchBenchmark";
+    private static final String BENCHMARK_DB = "first_launch_benchmark_database";
+    private static final int RUNS = 5;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private Instrumentation instrumentation;
+    private Context context;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = instrumentation.getTargetContext();
+        context.deleteDatabase(BENCHMARK_DB);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(BENCHMARK_DB);
+    }
+
+    @Test
+    public void prepackagedAssetTimeToFirstLesson() throws InterruptedException {
+        assumeTrue("Prebuilt database asset not bundled", SugarStepsDataBase.hasPrepackagedAsset(context));
+        report("prepackaged_asset", measure(true));
+    }
+
+    @Test
+    public void seedCallbackTimeToFirstLesson() throws InterruptedException {
+        report("seed_callback", measure(false));
+    }
+
+    // Runs a path RUNS times from a deleted database file, returns the times in nanoseconds
+    private long[] measure(boolean fromAsset) throws InterruptedException {
+        long[] times = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            context.deleteDatabase(BENCHMARK_DB);
+
+            long start = System.nanoTime();
+            SugarStepsDataBase database = SugarStepsDataBase.buildDatabase(context, BENCHMARK_DB, fromAsset,
+                    DatabaseTuningProfile.fromBuildConfig());
+            awaitFirstLesson(database);
+            times[i] = System.nanoTime() - start;
+
+            database.close();
+        }
+        return times;
+    }
+
+    // Blocks until the lesson list emits at least one lesson (no user is registered on a first launch)
+    private void awaitFirstLesson(SugarStepsDataBase database) throws InterruptedException {
+        CountDownLatch firstLesson = new CountDownLatch(1);
+        LiveData<List<LessonSummary>> lessons = database.lessonsDao().getAllLessons(-1);
+        Observer<List<LessonSummary>> observer = list -> {
+            if (list != null && !list.isEmpty()) firstLesson.countDown();
+        };
+
+        instrumentation.runOnMainSync(() -> lessons.observeForever(observer));
+        try {
+            assertTrue("No lesson within " + TIMEOUT_SECONDS + "s", firstLesson.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            instrumentation.runOnMainSync(() -> lessons.removeObserver(observer));
+        }
+    }
+
+    // Logs and reports the median and minimum of a path in milliseconds
+    private void report(String path, long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+        double medianMs = sorted[sorted.length / 2] / 1_000_000.0;
+        double minMs = sorted[0] / 1_000_000.0;
+
+        Log.i(TAG, String.format("%s: median %.1f ms, min %.1f ms over %d runs", path, medianMs, minMs, RUNS));
+
+        Bundle status = new Bundle();
+        status.putDouble(path + "_median_ms", medianMs);
+        status.putDouble(path + "_min_ms", minMs);
+        instrumentation.sendStatus(0, status);
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.sugarsteps.DB;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.SystemClock;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sugarsteps.lesson.RecipeContent;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+/**
+ * Verifies every schema migration against the exported schemas in app/schemas,
+ * and that user data survives the upgrade.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+
+    private static final String TEST_DB = "migration_test_database";
+
+    private final Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), SugarStepsDataBase.class);
+
+    @Test
+    public void migrate15To16KeepsLessons() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 15)) {
+            insertLesson(db, 1, "עוגת שמרים", "מומחים");
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 16, true, Migrations.MIGRATION_15_16);
+             Cursor cursor = db.query("SELECT lesson_name FROM Lesson WHERE level = 'מומחים'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("עוגת שמרים", cursor.getString(0));
+        }
+    }
+
+    @Test
+    public void migrate16To17IndexesExistingLessons() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 16)) {
+            insertLesson(db, 7, "רולדה ריבת חלב", "מתקדמים");
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 17, true,
+                Migrations.migration16To17(context));
+             Cursor cursor = db.query("SELECT rowid FROM LessonFts WHERE LessonFts MATCH 'רולדה*'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(7, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void migrate17To18CountsExistingLessons() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 17)) {
+            insertLesson(db, 1, "קאפקייקס", "מתחילים");
+            insertLesson(db, 2, "מגולגלות תמרים", "מתחילים");
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 18, true, Migrations.MIGRATION_17_18)) {
+            // Existing lessons are counted, and the triggers keep counting new writes
+            db.execSQL("UPDATE Lesson SET done = 1 WHERE lessonId = 1");
+            try (Cursor cursor = db.query("SELECT lesson_count, done_count, liked_count FROM LevelProgress WHERE level = 'מתחילים'")) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals(2, cursor.getInt(0));
+                assertEquals(1, cursor.getInt(1));
+                assertEquals(2, cursor.getInt(2));
+            }
+        }
+    }
+
+    @Test
+    public void migrate18To19ImportsRecipes() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 18)) {
+            insertLesson(db, 3, "עוגת גבינה", "מתקדמים");
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 19, true,
+                Migrations.migration18To19(context));
+             Cursor cursor = db.query("SELECT content, text_length FROM RecipeContent WHERE lessonId = 3")) {
+            // The lesson has no recipe file, so an empty recipe is imported
+            assertTrue(cursor.moveToFirst());
+            assertEquals(0, cursor.getInt(1));
+            assertEquals("", new RecipeContent(3, cursor.getBlob(0), cursor.getInt(1)).getText());
+        }
+    }
+
+    @Test
+    public void migrate19To20MovesFlagsToEveryUser() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 19)) {
+            insertLesson(db, 4, "עוגיות חמאה", "מתחילים");
+            insertLesson(db, 5, "מקרונים", "מומחים");
+            db.execSQL("UPDATE Lesson SET `like` = 0 WHERE lessonId = 5");
+            db.execSQL("INSERT INTO User (userId, username, role, ic_age) VALUES (1, 'סיון', 'student', 0), (2, 'נועה', 'student', 0)");
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 20, true, Migrations.MIGRATION_19_20)) {
+            // Each user gets the shared flags they saw before, untouched lessons get no row
+            try (Cursor cursor = db.query("SELECT userId, lessonId, done, `like` FROM LessonProgress ORDER BY userId")) {
+                assertEquals(2, cursor.getCount());
+                while (cursor.moveToNext()) {
+                    assertEquals(4, cursor.getInt(1));
+                    assertEquals(0, cursor.getInt(2));
+                    assertEquals(1, cursor.getInt(3));
+                }
+            }
+
+            // The rebuilt Lesson table kept its rows, and the counter triggers follow new lessons
+            insertLessonWithoutFlags(db, 6, "קאפקייקס", "מתחילים");
+            try (Cursor cursor = db.query("SELECT lesson_count FROM LevelProgress WHERE level = 'מתחילים'")) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals(2, cursor.getInt(0));
+            }
+        }
+    }
+
+    @Test
+    public void migrate20To21StoresLevelCodes() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 20)) {
+            insertLessonWithoutFlags(db, 1, "חלות", "מומחים");
+            insertLessonWithoutFlags(db, 2, "קאפקייקס", "מתחילים");
+            db.execSQL("INSERT INTO User (userId, username, role, level, ic_age) VALUES (1, 'סיון', 'guide', 'מתקדמים', 0)");
+            db.execSQL("INSERT INTO LessonProgress (userId, lessonId, done) VALUES (1, 1, 1)");
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 21, true, Migrations.MIGRATION_20_21)) {
+            try (Cursor cursor = db.query("SELECT lessonId FROM Lesson WHERE level = 2")) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals(1, cursor.getInt(0));
+            }
+            try (Cursor cursor = db.query("SELECT level FROM User WHERE userId = 1")) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals(1, cursor.getInt(0));
+            }
+            // Counters are keyed by code, and progress rows survive the table rebuilds
+            try (Cursor cursor = db.query("SELECT lesson_count FROM LevelProgress WHERE level = 0")) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals(1, cursor.getInt(0));
+            }
+            try (Cursor cursor = db.query("SELECT done FROM LessonProgress WHERE userId = 1 AND lessonId = 1")) {
+                assertTrue(cursor.moveToFirst());
+                assertEquals(1, cursor.getInt(0));
+            }
+        }
+    }
+
+    @Test
+    public void migrate21To22CountsProgressPerUser() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 21)) {
+            insertLessonWithoutFlags(db, 1, "חלות", 2);
+            insertLessonWithoutFlags(db, 2, "קאפקייקס", 2);
+            db.execSQL("INSERT INTO User (userId, username, role, level, ic_age) VALUES (1, 'סיון', 'student', 0, 0)");
+            db.execSQL("INSERT INTO LessonProgress (userId, lessonId, done, `like`) VALUES (1, 1, 1, 1), (1, 2, 0, 1)");
+        }
+
+        try (SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 22, true, Migrations.MIGRATION_21_22)) {
+            // Existing progress is counted, and the triggers follow new toggles and level moves
+            assertCounters(db, 1, 2, 1, 2);
+            db.execSQL("UPDATE LessonProgress SET done = 1 WHERE userId = 1 AND lessonId = 2");
+            assertCounters(db, 1, 2, 2, 2);
+            db.execSQL("UPDATE Lesson SET level = 0 WHERE lessonId = 1");
+            assertCounters(db, 1, 2, 1, 1);
+            assertCounters(db, 1, 0, 1, 1);
+            db.execSQL("DELETE FROM LessonProgress WHERE userId = 1 AND lessonId = 2");
+            assertCounters(db, 1, 2, 0, 0);
+        }
+    }
+
+    @Test
+    public void migrateAllFromOldestToLatest() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, Migrations.OLDEST_MIGRATABLE_VERSION)) {
+            insertLesson(db, 1, "מגולגלות תמרים", "מתחילים");
+        }
+
+        // Opening through Room validates the migrated schema against the current entities
+        SugarStepsDataBase database = Room.databaseBuilder(context, SugarStepsDataBase.class, TEST_DB)
+                .addMigrations(Migrations.all(context))
+                .build();
+        try (Cursor cursor = database.getOpenHelper().getWritableDatabase().query("SELECT COUNT(*) FROM Lesson")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(1, cursor.getInt(0));
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    public void destructiveDowngradeRecreatesTriggersAndSeeds() throws InterruptedException {
+        // A database of a newer app version is rebuilt from scratch on downgrade
+        context.deleteDatabase(TEST_DB);
+        try (SQLiteDatabase newer = context.openOrCreateDatabase(TEST_DB, Context.MODE_PRIVATE, null)) {
+            newer.execSQL("CREATE TABLE FutureTable (id INTEGER PRIMARY KEY)");
+            newer.setVersion(1_000); // Newer than any schema of the app
+        }
+
+        SugarStepsDataBase database = SugarStepsDataBase.buildDatabase(context, TEST_DB, false,
+                DatabaseTuningProfile.DEFAULT);
+        try {
+            SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+            try (Cursor cursor = db.query("SELECT COUNT(*) FROM sqlite_master WHERE type = 'trigger' "
+                    + "AND name LIKE 'level_progress_%'")) {
+                assertTrue(cursor.moveToFirst());
+                assertTrue(cursor.getInt(0) > 0);
+            }
+
+            // The seed catalog is inserted in the background, and counted by the triggers
+            long deadline = SystemClock.uptimeMillis() + 10_000;
+            int lessons = 0;
+            while (lessons == 0 && SystemClock.uptimeMillis() < deadline) {
+                Thread.sleep(50);
+                lessons = count(db, "SELECT COUNT(*) FROM Lesson");
+            }
+            assertTrue(lessons > 0);
+            assertEquals(lessons, count(db, "SELECT IFNULL(SUM(lesson_count), 0) FROM LevelProgress"));
+        } finally {
+            database.close();
+            context.deleteDatabase(TEST_DB);
+        }
+    }
+
+    private static int count(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            return cursor.moveToFirst() ? cursor.getInt(0) : 0;
+        }
+    }
+
+    private static void assertCounters(SupportSQLiteDatabase db, int userId, int level, int done, int liked) {
+        try (Cursor cursor = db.query("SELECT done_count, liked_count FROM UserLevelCounter WHERE userId = ? AND level = ?",
+                new Object[]{userId, level})) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(done, cursor.getInt(0));
+            assertEquals(liked, cursor.getInt(1));
+        }
+    }
+
+    // Inserts a user-created lesson with raw SQL, as the old schema has no DAO
+    private static void insertLesson(SupportSQLiteDatabase db, int id, String name, String level) {
+        db.execSQL("INSERT INTO Lesson (lessonId, lesson_name, lesson_photo, short_description, lesson_guide, "
+                        + "level, lesson_video, long_description, done, `like`) VALUES (?, ?, '', 'תיאור', 'סיון לסרי', ?, '', '', 0, 1)",
+                new Object[]{id, name, level});
+    }
+
+    // Inserts a lesson with raw SQL into a schema whose Lesson table no longer has the progress flags.
+    // The level is a Hebrew name before schema 21 and a LessonLevel code from it on.
+    private static void insertLessonWithoutFlags(SupportSQLiteDatabase db, int id, String name, Object level) {
+        db.execSQL("INSERT INTO Lesson (lessonId, lesson_name, lesson_photo, short_description, lesson_guide, "
+                        + "level, lesson_video, long_description) VALUES (?, ?, '', 'תיאור', 'סיון לסרי', ?, '', '')",
+                new Object[]{id, name, level});
+    }
+}
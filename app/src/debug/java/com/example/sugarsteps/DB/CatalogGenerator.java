@@ -0,0 +1,275 @@
+package com.example.sugarsteps.DB;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+import com.example.sugarsteps.lesson.Lesson;
+import com.example.sugarsteps.lesson.LessonLevel;
+import com.example.sugarsteps.lesson.LessonProgress;
+import com.example.sugarsteps.lesson.LessonsDao;
+import com.example.sugarsteps.user.User;
+import com.example.sugarsteps.user.UserDao;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Debug-only generator of a large synthetic catalog, for profiling list scrolling, level
+ * filtering and search at 10k–100k lessons.
+ *
+ * Rows are added next to the existing ones, nothing is deleted. The same seed and counts
+ * always generate the same rows: only the rows draw from the seeded random source, the stub
+ * files (written on the first run only) have their own fixed one.
+ *
+ * Features:
+ * - Lessons with Hebrew names, descriptions and recipe text, searchable like lessons added in the app.
+ * - Mixed levels: about half for beginners, a third advanced and the rest for experts.
+ * - Users with Hebrew names, mixed roles, levels, genders and ages.
+ * - Done and like flags for every generated user, skewed so most users touch few lessons and a
+ *   few touch many, plus flags for the logged-in user over the whole catalog.
+ * - Stub image and recipe files in internal storage, shared round-robin by the lessons, and
+ *   the bundled seed videos.
+ * - Everything is written in batched transactions.
+ *
+ * @author Sivan Lasri
+ * @version 2.0
+ */
+public class CatalogGenerator {
+
+    /**
+     * Receives the generator's progress. Called on the generating thread.
+     */
+    public interface ProgressListener {
+        /**
+         * @param stage name of the current stage
+         * @param done  items written in the stage so far
+         * @param total items the stage writes
+         */
+        void onProgress(String stage, int done, int total);
+    }
+
+    private static final int LESSON_BATCH = 500;      // Lessons per transaction
+    private static final int USER_BATCH = 500;        // Users per transaction
+    private static final int PROGRESS_BATCH = 2_000;  // Progress rows per transaction
+    private static final int STUB_COUNT = 12;         // Distinct stub images and recipe files
+    private static final int MAX_TOUCHED_PER_USER = 400; // Most lessons a generated user has flags on
+    private static final double CURRENT_USER_SHARE = 0.12; // Share of the catalog the logged-in user has flags on
+
+    private static final String[] DISHES = {"עוגת", "מאפה", "עוגיות", "טארט", "מוס", "קאפקייקס",
+            "רולדת", "פאי", "בראוניז", "מקרונים", "חלת", "שטרודל"};
+    private static final String[] FLAVORS = {"שוקולד", "וניל", "לימון", "תפוזים", "תמרים", "גבינה",
+            "קינמון", "פירות יער", "קרמל", "אגוזים", "קוקוס", "תפוחים", "ריבת חלב", "פיסטוק"};
+    private static final String[] STYLES = {"של סבתא", "בלי אפייה", "טבעוני", "ללא גלוטן", "מהיר",
+            "חגיגי", "קלאסי", "אוורירי"};
+    private static final String[] DESCRIPTIONS = {"מתכון קל שמצליח בכל פעם", "מושלם לשבת ולחגים",
+            "מרקם רך ונימוח", "הכנה של פחות משעה", "הקינוח שכולם מבקשים", "טעם של פעם בגרסה חדשה"};
+    private static final String[] STEPS = {"מחממים תנור ל-180 מעלות.", "מערבבים את החומרים היבשים בקערה.",
+            "מקציפים ביצים וסוכר עד לתערובת תפוחה.", "מוסיפים חמאה מומסת ומערבבים היטב.",
+            "יוצקים לתבנית משומנת.", "אופים כ-35 דקות עד שקיסם יוצא יבש.", "מצננים לפני החיתוך.",
+            "מפזרים אבקת סוכר ומגישים."};
+    private static final String[] INGREDIENTS = {"2 כוסות קמח", "כוס סוכר", "3 ביצים", "100 גרם חמאה",
+            "כוס חלב", "שקית אבקת אפייה", "קורט מלח", "200 גרם שוקולד מריר", "כפית תמצית וניל"};
+    private static final String[] FIRST_NAMES = {"נועה", "יעל", "תמר", "מאיה", "שירה", "אורי", "איתי",
+            "דניאל", "עומר", "רוני", "הילה", "אביגיל", "יונתן", "נטע", "עדי", "ליאור"};
+    private static final String[] LAST_NAMES = {"כהן", "לוי", "מזרחי", "פרץ", "ביטון", "אברהם",
+            "פרידמן", "שפירא", "דהן", "אזולאי"};
+    private static final String[] SEED_VIDEOS = {"halot", "cupcakes", "chocalate_chips_cookies"};
+
+    private final Context context;      // Application context, for files and bundled resources
+    private final SugarStepsDataBase database;
+    private final Random random;
+
+    /**
+     * @param context  any context; the application context is kept
+     * @param database the database to fill
+     * @param seed     seed of every random choice
+     */
+    public CatalogGenerator(Context context, SugarStepsDataBase database, long seed) {
+        this.context = context.getApplicationContext();
+        this.database = database;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates the users, the lessons and their progress. Must be called off the main thread.
+     *
+     * @param lessonCount   number of lessons to add
+     * @param userCount     number of users to add
+     * @param currentUserId the logged-in user, who also gets flags, or -1 for none
+     * @param listener      receives the progress, may be {@code null}
+     * @throws IOException if the stub media files cannot be written
+     */
+    public void generate(int lessonCount, int userCount, long currentUserId, ProgressListener listener)
+            throws IOException {
+        String[][] stubs = writeStubMedia();
+        List<String> guides = new ArrayList<>();
+        int[] userIds = insertUsers(userCount, guides, listener);
+        if (guides.isEmpty()) {
+            guides.add("סיון לסרי"); // The seed lessons' guide
+        }
+        int[] lessonIds = insertLessons(lessonCount, guides, stubs, listener);
+        insertProgress(userIds, lessonIds, currentUserId, listener);
+    }
+
+    // Inserts the users in batched transactions and collects the guides' names
+    private int[] insertUsers(int count, List<String> guides, ProgressListener listener) {
+        UserDao dao = database.usersDao();
+        int[] ids = new int[count];
+        LessonLevel[] levels = LessonLevel.values();
+        for (int start = 0; start < count; start += USER_BATCH) {
+            int end = Math.min(count, start + USER_BATCH);
+            int from = start;
+            database.runInTransaction(() -> {
+                for (int i = from; i < end; i++) {
+                    String name = pick(FIRST_NAMES) + " " + pick(LAST_NAMES);
+                    boolean guide = random.nextInt(10) == 0; // About one guide per ten students
+                    User user = new User(name + " " + (i + 1), guide ? "guide" : "student");
+                    user.setLevel(levels[random.nextInt(levels.length)]);
+                    user.setGender(random.nextBoolean() ? "נקבה" : "זכר");
+                    user.setAge(14 + random.nextInt(60));
+                    ids[i] = (int) dao.insertUser(user);
+                    if (guide && guides.size() < 50) {
+                        guides.add(name);
+                    }
+                }
+            });
+            report(listener, "users", end, count);
+        }
+        return ids;
+    }
+
+    // Inserts the lessons with their recipes and search entries, one transaction per batch
+    private int[] insertLessons(int count, List<String> guides, String[][] stubs, ProgressListener listener) {
+        LessonsDao dao = database.lessonsDao();
+        int[] ids = new int[count];
+        List<Lesson> batch = new ArrayList<>(LESSON_BATCH);
+        String[] recipes = new String[LESSON_BATCH];
+        int combinations = DISHES.length * FLAVORS.length * STYLES.length;
+        for (int start = 0; start < count; start += LESSON_BATCH) {
+            int end = Math.min(count, start + LESSON_BATCH);
+            batch.clear();
+            for (int i = start; i < end; i++) {
+                String name = pick(DISHES) + " " + pick(FLAVORS) + " " + pick(STYLES);
+                if (i >= combinations) {
+                    name += " " + (i / combinations + 1); // Names repeat once the combinations run out
+                }
+                String[] stub = stubs[i % stubs.length];
+                batch.add(new Lesson(name, stub[0], pick(DESCRIPTIONS), guides.get(random.nextInt(guides.size())),
+                        randomLevel(), videoUri(pick(SEED_VIDEOS)), stub[1]));
+                recipes[i - start] = recipe(name, random);
+            }
+            dao.insertAllIndexed(batch, recipes);
+            for (int i = start; i < end; i++) {
+                ids[i] = batch.get(i - start).getLessonId();
+            }
+            report(listener, "lessons", end, count);
+        }
+        return ids;
+    }
+
+    // Inserts the done and like flags of every generated user and of the logged-in user
+    private void insertProgress(int[] userIds, int[] lessonIds, long currentUserId, ProgressListener listener) {
+        if (lessonIds.length == 0) {
+            return;
+        }
+        LessonsDao dao = database.lessonsDao();
+        List<LessonProgress> batch = new ArrayList<>(PROGRESS_BATCH);
+        int total = userIds.length + (currentUserId >= 0 ? 1 : 0);
+        for (int u = 0; u < total; u++) {
+            int userId = u < userIds.length ? userIds[u] : (int) currentUserId;
+            int touched = u < userIds.length
+                    // Cubed uniform: most users touch a handful of lessons, a few touch hundreds
+                    ? (int) (Math.pow(random.nextDouble(), 3) * Math.min(MAX_TOUCHED_PER_USER, lessonIds.length))
+                    : (int) (lessonIds.length * CURRENT_USER_SHARE);
+            for (int t = 0; t < touched; t++) {
+                boolean done = random.nextInt(10) < 7;   // Most touched lessons were made
+                boolean liked = random.nextInt(10) < 3;  // Fewer were liked
+                if (!done && !liked) {
+                    done = true; // A row without flags is the same as no row
+                }
+                batch.add(new LessonProgress(userId, lessonIds[random.nextInt(lessonIds.length)], done, liked));
+                if (batch.size() == PROGRESS_BATCH) {
+                    dao.insertAllProgress(batch); // Repeated picks are ignored
+                    batch.clear();
+                }
+            }
+            report(listener, "progress", u + 1, total);
+        }
+        if (!batch.isEmpty()) {
+            dao.insertAllProgress(batch);
+        }
+    }
+
+    // Writes the stub images and recipe files once, returns their paths as {image, recipe} pairs
+    private String[][] writeStubMedia() throws IOException {
+        String[][] stubs = new String[STUB_COUNT][];
+        for (int i = 0; i < STUB_COUNT; i++) {
+            File image = new File(context.getFilesDir(), "lesson_stub_" + i + "_image.jpg");
+            File text = new File(context.getFilesDir(), "lesson_stub_" + i + "_description.txt");
+            if (!image.exists()) {
+                Bitmap bitmap = Bitmap.createBitmap(320, 240, Bitmap.Config.RGB_565);
+                new Canvas(bitmap).drawColor(Color.HSVToColor(new float[]{i * 360f / STUB_COUNT, 0.35f, 0.95f}));
+                try (OutputStream out = new FileOutputStream(image)) {
+                    bitmap.compress(Bitmap.CompressFormat.JPEG, 80, out);
+                }
+                bitmap.recycle();
+            }
+            if (!text.exists()) {
+                try (OutputStream out = new FileOutputStream(text)) {
+                    // Own source: whether the file is written must not shift the seeded rows
+                    Random stubRandom = new Random(i);
+                    out.write(recipe("מתכון לדוגמה " + (i + 1), stubRandom).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            stubs[i] = new String[]{image.getAbsolutePath(), text.getAbsolutePath()};
+        }
+        return stubs;
+    }
+
+    // Ingredients and steps of a recipe, a few hundred characters like the bundled ones
+    private static String recipe(String name, Random source) {
+        StringBuilder text = new StringBuilder(name).append("\n\nמצרכים:\n");
+        int ingredients = 4 + source.nextInt(5);
+        for (int i = 0; i < ingredients; i++) {
+            text.append("- ").append(pick(INGREDIENTS, source)).append('\n');
+        }
+        text.append("\nאופן ההכנה:\n");
+        int steps = 3 + source.nextInt(STEPS.length - 2);
+        for (int i = 0; i < steps; i++) {
+            text.append(i + 1).append(". ").append(STEPS[i]).append('\n');
+        }
+        return text.toString();
+    }
+
+    // About 50% beginners, 35% advanced and 15% experts
+    private LessonLevel randomLevel() {
+        int roll = random.nextInt(100);
+        return roll < 50 ? LessonLevel.BEGINNER : roll < 85 ? LessonLevel.ADVANCED : LessonLevel.EXPERT;
+    }
+
+    private String videoUri(String rawName) {
+        return "android.resource://" + context.getPackageName() + "/raw/" + rawName;
+    }
+
+    private String pick(String[] values) {
+        return pick(values, random);
+    }
+
+    private static String pick(String[] values, Random source) {
+        return values[source.nextInt(values.length)];
+    }
+
+    private static void report(ProgressListener listener, String stage, int done, int total) {
+        if (listener != null) {
+            listener.onProgress(stage, done, total);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.sugarsteps.DB;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.sugarsteps.R;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Debug-only entry point of {@link CatalogGenerator}.
+ *
+ * Not reachable from the app's menus. Open it and press the button, or start a run directly:
+ * {@code adb shell am start -n com.example.sugarsteps/.DB.CatalogGeneratorActivity
+ * --ei lessons 100000 --ei users 1000 --el seed 42}
+ *
+ * Features:
+ * - Lesson count, user count and seed fields, prefilled from the intent extras.
+ * - Starts right away when launched with a "lessons" extra.
+ * - Shows the current stage and the total time; the logged-in user also gets flags.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+public class CatalogGeneratorActivity extends AppCompatActivity {
+
+    private static final String EXTRA_LESSONS = "lessons"; // Number of lessons to add
+    private static final String EXTRA_USERS = "users";     // Number of users to add
+    private static final String EXTRA_SEED = "seed";       // Seed of the generated data
+
+    private EditText lessonsEt;   // Number of lessons to add
+    private EditText usersEt;     // Number of users to add
+    private EditText seedEt;      // Seed of the generated data
+    private Button generateBtn;   // Starts the generator
+    private TextView statusTv;    // Current stage and result
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(); // Runs the generator
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_catalog_generator);
+
+        lessonsEt = findViewById(R.id.et_generate_lessons);
+        usersEt = findViewById(R.id.et_generate_users);
+        seedEt = findViewById(R.id.et_generate_seed);
+        generateBtn = findViewById(R.id.btn_generate_catalog);
+        statusTv = findViewById(R.id.tv_generate_status);
+
+        Intent intent = getIntent();
+        lessonsEt.setText(String.valueOf(intent.getIntExtra(EXTRA_LESSONS, 10_000)));
+        usersEt.setText(String.valueOf(intent.getIntExtra(EXTRA_USERS, 100)));
+        seedEt.setText(String.valueOf(intent.getLongExtra(EXTRA_SEED, 42L)));
+
+        generateBtn.setOnClickListener(v -> generate()); // Starting a run with the typed counts
+
+        if (savedInstanceState == null && intent.hasExtra(EXTRA_LESSONS)) {
+            generate(); // Started from adb with the counts
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        executor.shutdown(); // A running generation finishes, no new one starts
+    }
+
+    /**
+     * Reads the fields and runs the generator on the background thread.
+     */
+    private void generate() {
+        int lessons = parseInt(lessonsEt, 0);
+        int users = parseInt(usersEt, 0);
+        long seed;
+        try {
+            seed = Long.parseLong(seedEt.getText().toString().trim());
+        } catch (NumberFormatException e) {
+            seed = 42L;
+        }
+        long currentUserId = getSharedPreferences("SugarStepsPref", MODE_PRIVATE).getLong("userId", -1);
+
+        generateBtn.setEnabled(false);
+        long finalSeed = seed;
+        executor.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            String result;
+            try {
+                SugarStepsDataBase database = SugarStepsDataBase.getDatabase(this);
+                new CatalogGenerator(this, database, finalSeed).generate(lessons, users, currentUserId,
+                        (stage, done, total) -> runOnUiThread(() ->
+                                statusTv.setText(getString(R.string.generate_progress, stage, done, total))));
+                result = getString(R.string.generate_done, lessons, users,
+                        (SystemClock.elapsedRealtime() - start) / 1000.0);
+            } catch (Exception e) {
+                result = getString(R.string.generate_failed, e.getMessage());
+            }
+            String message = result;
+            runOnUiThread(() -> {
+                statusTv.setText(message);
+                generateBtn.setEnabled(true);
+            });
+        });
+    }
+
+    private static int parseInt(EditText field, int fallback) {
+        try {
+            return Math.max(0, Integer.parseInt(field.getText().toString().trim()));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
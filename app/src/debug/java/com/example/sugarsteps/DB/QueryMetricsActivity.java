@@ -0,0 +1,83 @@
+package com.example.sugarsteps.DB;
+
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.sugarsteps.R;
+
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Debug-only screen listing the latency of every SQL statement recorded by {@link QueryMetrics}.
+ *
+ * Not reachable from the app's menus; open it with
+ * {@code adb shell am start -n com.example.sugarsteps/.DB.QueryMetricsActivity}.
+ *
+ * Features:
+ * - One line per statement, slowest p95 first: count, p50/p95/p99/max in ms, mean rows,
+ *   main-thread calls and the last calling thread.
+ * - Refresh and reset buttons, to measure a single user flow from a clean registry.
+ * - The same table is written by {@code dumpsys activity} while the screen is open.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+public class QueryMetricsActivity extends AppCompatActivity {
+
+    private TextView metricsTv; // Table of the recorded statements
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_query_metrics);
+
+        metricsTv = findViewById(R.id.tv_query_metrics);
+        Button refreshBtn = findViewById(R.id.btn_refresh_metrics);
+        Button resetBtn = findViewById(R.id.btn_reset_metrics);
+
+        refreshBtn.setOnClickListener(v -> showMetrics()); // Reading the registry again
+        resetBtn.setOnClickListener(v -> {
+            QueryMetrics.getInstance().reset(); // Starting a new measurement
+            showMetrics();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        showMetrics(); // Statements recorded while another screen was open
+    }
+
+    /**
+     * Shows the current snapshot of the registry.
+     */
+    private void showMetrics() {
+        List<QueryMetrics.Snapshot> snapshots = QueryMetrics.getInstance().snapshot();
+        if (snapshots.isEmpty()) {
+            metricsTv.setText(R.string.query_metrics_empty);
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (QueryMetrics.Snapshot snapshot : snapshots) {
+            text.append(snapshot).append("\n\n");
+        }
+        metricsTv.setText(text);
+    }
+
+    /**
+     * Adds the query metrics to {@code adb shell dumpsys activity} output.
+     */
+    @Override
+    public void dump(@NonNull String prefix, @Nullable FileDescriptor fd, @NonNull PrintWriter writer,
+                     @Nullable String[] args) {
+        super.dump(prefix, fd, writer, args);
+        QueryMetrics.getInstance().dump(prefix, writer);
+    }
+}
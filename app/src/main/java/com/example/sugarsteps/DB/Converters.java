@@ -0,0 +1,40 @@
+package com.example.sugarsteps.DB;
+
+import androidx.room.TypeConverter;
+
+import com.example.sugarsteps.lesson.LessonLevel;
+
+/**
+ * Room type converters of {@link SugarStepsDataBase}.
+ *
+ * Features:
+ * - {@link LessonLevel} is stored as its integer code, so level columns and their index
+ *   hold one small integer per row and are compared without any string matching.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+public final class Converters {
+
+    private Converters() {
+        // Static converters only
+    }
+
+    /**
+     * @param level the level to store, may be {@code null}
+     * @return the level's code, or {@code null} for no level
+     */
+    @TypeConverter
+    public static Integer fromLevel(LessonLevel level) {
+        return level == null ? null : level.getCode();
+    }
+
+    /**
+     * @param code the stored code, may be {@code null}
+     * @return the level with this code, or {@code null} for no level or an unknown code
+     */
+    @TypeConverter
+    public static LessonLevel toLevel(Integer code) {
+        return code == null ? null : LessonLevel.fromCode(code);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.sugarsteps.DB;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.sugarsteps.lesson.CatalogSnapshot;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Opens the SugarSteps database on a background thread as soon as the process starts.
+ *
+ * Building the Room database, copying the prebuilt asset or running migrations, and the first
+ * queries otherwise all happen on the main thread in the first Activity's onCreate, when its
+ * ViewModels create their repositories. The Application starts this initializer instead. The
+ * repositories take the database with {@link #getDatabase}, which never waits for the open: their
+ * queries run on background threads, which wait for it there. Only background work that needs
+ * the database open, such as the splash screen's prefetch, awaits the ready handle.
+ *
+ * Features:
+ * - Builds and opens the database (schema validation, migrations, callbacks, tuning pragmas).
+ * - Once the database is open, and after its ready handle completes: prefetches the registered
+ *   user and the first lesson page of the user's level into a {@link CatalogSnapshot}, which the
+ *   lessons list binds on its first frame, then schedules the daily database maintenance.
+ *   Only the enqueue runs here: WorkManager itself is initialized by androidx.startup on the
+ *   main thread when the process starts.
+ * - {@link #getDatabase} returns at once, also while the database is still opening, and is the
+ *   one to use on the main thread, e.g. in ViewModel and repository constructors. A process
+ *   restored straight into a later screen never blocks its first onCreate on the open.
+ * - {@link #awaitDatabase} blocks only until the database is open, never for the prefetch or
+ *   the maintenance scheduling, refuses to block the main thread, and falls back to opening the
+ *   database directly if the initializer was never started or failed.
+ *
+ * @author Sivan Lasri
+ * @version 4.0
+ */
+public final class DatabaseInitializer {
+
+    private static final String TAG = "DatabaseInitializer";
+
+    private static volatile Future<SugarStepsDataBase> ready; // Ready handle, null until started
+
+    private DatabaseInitializer() {
+    }
+
+    /**
+     * Starts opening and warming the database in the background. Calls after the first are ignored.
+     *
+     * @param context any context
+     */
+    public static void start(Context context) {
+        if (ready != null) {
+            return;
+        }
+        synchronized (DatabaseInitializer.class) {
+            if (ready == null) {
+                Context appContext = context.getApplicationContext();
+                ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, TAG);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                ready = executor.submit(() -> open(appContext));
+                executor.execute(() -> warmUp(appContext)); // Runs after the open, on the same thread
+                executor.shutdown(); // The thread ends once both are done
+            }
+        }
+    }
+
+    /**
+     * Returns the database without waiting for it to open. Its DAOs can be used right away:
+     * LiveData and paged queries run on Room's executors and the repositories' other work on
+     * their own, where the first query waits for the initializer's open. Safe on the main thread.
+     *
+     * @param context any context
+     * @return the database, open or still opening
+     */
+    public static SugarStepsDataBase getDatabase(Context context) {
+        return SugarStepsDataBase.getDatabase(context);
+    }
+
+    /**
+     * Returns the database once it is open, waiting for the initializer if it is still running.
+     * If the initializer was never started (or failed) the database is returned unopened, as
+     * {@link SugarStepsDataBase#getDatabase} does, and opens on its first query.
+     * Must be called off the main thread while the initializer is running, use {@link #getDatabase} there.
+     *
+     * @param context any context
+     * @return the open database
+     * @throws IllegalStateException if called on the main thread before the database is open
+     */
+    public static SugarStepsDataBase awaitDatabase(Context context) {
+        Future<SugarStepsDataBase> handle = ready;
+        if (handle != null) {
+            if (!handle.isDone() && Looper.myLooper() == Looper.getMainLooper()) {
+                throw new IllegalStateException(
+                        "awaitDatabase() would block the main thread until the database is open, use getDatabase()");
+            }
+            try {
+                return handle.get();
+            } catch (ExecutionException e) {
+                Log.w(TAG, "Background initialization failed, opening the database directly", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return SugarStepsDataBase.getDatabase(context);
+    }
+
+    // Opens the database; completes the ready handle
+    private static SugarStepsDataBase open(Context context) {
+        long start = SystemClock.elapsedRealtime();
+        SugarStepsDataBase database = SugarStepsDataBase.getDatabase(context);
+        database.getOpenHelper().getWritableDatabase(); // Copies or migrates the database now
+        Log.i(TAG, "Database ready in " + (SystemClock.elapsedRealtime() - start) + " ms");
+        return database;
+    }
+
+    // Prefetches the lessons list's first page and schedules maintenance, once the database is open
+    private static void warmUp(Context context) {
+        try {
+            SugarStepsDataBase database = awaitDatabase(context);
+            SharedPreferences prefs = context.getSharedPreferences("SugarStepsPref", Context.MODE_PRIVATE);
+            long userId = prefs.getLong("userId", -1);
+            if (prefs.getBoolean("isRegistered", false)) {
+                CatalogSnapshot.prefetch(database, userId); // The user and the first lesson page, for the lessons list
+            }
+
+            // Keep the database compact and its statistics fresh; a no-op when already scheduled
+            DatabaseMaintenanceWorker.schedule(context);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Could not warm up after opening the database", e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.sugarsteps.DB;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteException;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.sugarsteps.lesson.LessonMediaCollector;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background maintenance of the SugarSteps database, run by WorkManager once a day while the
+ * device is idle and charging.
+ *
+ * Deleted and edited lessons leave free pages behind and the file never shrinks, and without
+ * statistics the query planner never learns the real shape of the tables. This job fixes both.
+ *
+ * Features:
+ * - Query planner statistics: a full ANALYZE the first time, PRAGMA optimize afterwards.
+ * - Space: switches the file to incremental auto-vacuum once (a single full VACUUM), then
+ *   returns free pages in small incremental_vacuum steps, so DAO writes run in between.
+ * - Truncates the write-ahead log after the work, so the freed space reaches the file system.
+ * - Deletes orphaned lesson media files (see {@link LessonMediaCollector}) and reports the bytes reclaimed.
+ * - Stops between steps when WorkManager cancels the job (the device left idle or charging).
+ * - Records file size before and after, freed pages and duration: in the work's output data,
+ *   in preferences (see {@link #dump}) and in the log. The statements themselves are also
+ *   timed in {@link QueryMetrics}.
+ *
+ * @author Sivan Lasri
+ * @version 2.0
+ */
+public class DatabaseMaintenanceWorker extends Worker {
+
+    private static final String TAG = "DbMaintenance";
+
+    /** Unique name of the periodic work. */
+    static final String WORK_NAME = "sugarsteps_database_maintenance";
+
+    /** Output and preference keys of the last run. */
+    public static final String KEY_SIZE_BEFORE = "size_before";
+    public static final String KEY_SIZE_AFTER = "size_after";
+    public static final String KEY_FREED_PAGES = "freed_pages";
+    public static final String KEY_DURATION_MS = "duration_ms";
+    public static final String KEY_MEDIA_FILES_DELETED = "media_files_deleted";
+    public static final String KEY_MEDIA_BYTES_RECLAIMED = "media_bytes_reclaimed";
+    private static final String KEY_FINISHED_AT = "finished_at";
+
+    private static final String PREFS_NAME = "SugarStepsMaintenance"; // Report of the last run
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;               // PRAGMA auto_vacuum value
+    private static final int VACUUM_STEP_PAGES = 64;                     // Pages returned per step
+
+    public DatabaseMaintenanceWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Schedules the daily maintenance, unless it is already scheduled.
+     *
+     * @param context any context
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiresDeviceIdle(true)
+                .setRequiresCharging(true)
+                .build();
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                DatabaseMaintenanceWorker.class, 1, TimeUnit.DAYS)
+                .setConstraints(constraints)
+                .build();
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        File file = context.getDatabasePath(SugarStepsDataBase.DATABASE_NAME);
+        SugarStepsDataBase database = SugarStepsDataBase.getDatabase(context);
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+
+        long sizeBefore = sizeOf(file);
+        long start = SystemClock.elapsedRealtime();
+        long freedPages;
+        try {
+            updateStatistics(db);
+            freedPages = reclaimSpace(db);
+            if (db.isWriteAheadLoggingEnabled()) {
+                Pragmas.run(db, "PRAGMA wal_checkpoint(TRUNCATE)");
+            }
+        } catch (SQLiteException e) {
+            Log.w(TAG, "Maintenance failed, retrying later", e); // Usually a long foreground transaction
+            return Result.retry();
+        }
+        long duration = SystemClock.elapsedRealtime() - start;
+        long sizeAfter = sizeOf(file);
+
+        LessonMediaCollector.Report media = new LessonMediaCollector(context, database.lessonsDao())
+                .collect(LessonMediaCollector.DEFAULT_GRACE_PERIOD_MS, this::isStopped);
+
+        Log.i(TAG, "Size " + sizeBefore + " -> " + sizeAfter + " bytes, " + freedPages
+                + " pages freed in " + duration + " ms, " + media.bytesReclaimed + " media bytes reclaimed");
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                .putLong(KEY_SIZE_BEFORE, sizeBefore)
+                .putLong(KEY_SIZE_AFTER, sizeAfter)
+                .putLong(KEY_FREED_PAGES, freedPages)
+                .putLong(KEY_DURATION_MS, duration)
+                .putLong(KEY_MEDIA_FILES_DELETED, media.filesDeleted)
+                .putLong(KEY_MEDIA_BYTES_RECLAIMED, media.bytesReclaimed)
+                .putLong(KEY_FINISHED_AT, System.currentTimeMillis())
+                .apply();
+        return Result.success(new Data.Builder()
+                .putLong(KEY_SIZE_BEFORE, sizeBefore)
+                .putLong(KEY_SIZE_AFTER, sizeAfter)
+                .putLong(KEY_FREED_PAGES, freedPages)
+                .putLong(KEY_DURATION_MS, duration)
+                .putLong(KEY_MEDIA_FILES_DELETED, media.filesDeleted)
+                .putLong(KEY_MEDIA_BYTES_RECLAIMED, media.bytesReclaimed)
+                .build());
+    }
+
+    // Full ANALYZE while there are no statistics yet, then only what PRAGMA optimize deems stale
+    private static void updateStatistics(SupportSQLiteDatabase db) {
+        boolean hasStatistics;
+        try (Cursor cursor = db.query("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'sqlite_stat1'")) {
+            hasStatistics = cursor.moveToFirst();
+        }
+        if (hasStatistics) {
+            Pragmas.run(db, "PRAGMA optimize");
+        } else {
+            db.execSQL("ANALYZE");
+        }
+    }
+
+    // Returns free pages to the file system and reports how many were returned
+    private long reclaimSpace(SupportSQLiteDatabase db) {
+        long freeBefore = Pragmas.run(db, "PRAGMA freelist_count");
+        if (Pragmas.run(db, "PRAGMA auto_vacuum") != AUTO_VACUUM_INCREMENTAL) {
+            // The mode only takes effect through a full VACUUM, done once per install
+            Pragmas.run(db, "PRAGMA auto_vacuum = INCREMENTAL");
+            db.execSQL("VACUUM");
+            return freeBefore;
+        }
+        long free = freeBefore;
+        while (free > 0 && !isStopped()) {
+            // Small steps, each in its own write transaction, so foreground writes are never held up long
+            Pragmas.run(db, "PRAGMA incremental_vacuum(" + VACUUM_STEP_PAGES + ")");
+            long left = Pragmas.run(db, "PRAGMA freelist_count");
+            if (left >= free) {
+                break; // Nothing more can be returned right now
+            }
+            free = left;
+        }
+        return freeBefore - free;
+    }
+
+    // Size of the database file and its write-ahead log
+    private static long sizeOf(File database) {
+        return database.length() + new File(database.getPath() + "-wal").length();
+    }
+
+    /**
+     * Writes the report of the last maintenance run, for {@code dumpsys activity}.
+     *
+     * @param context any context
+     * @param prefix  line prefix given by dumpsys
+     * @param writer  the dump output
+     */
+    public static void dump(Context context, String prefix, PrintWriter writer) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        writer.print(prefix);
+        if (!prefs.contains(KEY_FINISHED_AT)) {
+            writer.println("Database maintenance: never run");
+            return;
+        }
+        writer.println("Database maintenance: last run at " + prefs.getLong(KEY_FINISHED_AT, 0)
+                + ", size " + prefs.getLong(KEY_SIZE_BEFORE, 0) + " -> " + prefs.getLong(KEY_SIZE_AFTER, 0)
+                + " bytes, " + prefs.getLong(KEY_FREED_PAGES, 0) + " pages freed in "
+                + prefs.getLong(KEY_DURATION_MS, 0) + " ms, " + prefs.getLong(KEY_MEDIA_FILES_DELETED, 0)
+                + " orphaned media files (" + prefs.getLong(KEY_MEDIA_BYTES_RECLAIMED, 0) + " bytes) deleted");
+    }
+}
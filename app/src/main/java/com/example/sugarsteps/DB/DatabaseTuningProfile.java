@@ -0,0 +1,113 @@
+package com.example.sugarsteps.DB;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.sugarsteps.BuildConfig;
+
+import java.util.concurrent.Executors;
+
+/**
+ * SQLite tuning profiles of {@link SugarStepsDataBase}, applied in the Room builder chain.
+ *
+ * The profile used by the app is chosen per build type through the DB_TUNING_PROFILE
+ * build config field (see app/build.gradle).
+ *
+ * Features:
+ * - DEFAULT: Room and platform defaults, nothing is changed.
+ * - THROUGHPUT: WAL journal, synchronous=NORMAL, 8 MB page cache, 64 MB memory map and
+ *   a small pool of reader threads, so list reads run alongside writes.
+ * - LOW_MEMORY: rollback journal, synchronous=FULL, 512 KB page cache, no memory map and
+ *   a single query thread.
+ *
+ * Pragmas are applied when the database is opened, to every connection of the pool: with WAL
+ * the reads run on separate reader connections, which a PRAGMA run on Room's own connection
+ * would never reach.
+ *
+ * @author Sivan Lasri
+ * @version 3.0
+ */
+public enum DatabaseTuningProfile {
+
+    DEFAULT(RoomDatabase.JournalMode.AUTOMATIC, null, 0, -1, 0),
+    THROUGHPUT(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING, "NORMAL", 8 * 1024, 64L * 1024 * 1024, 4),
+    LOW_MEMORY(RoomDatabase.JournalMode.TRUNCATE, "FULL", 512, 0, 1);
+
+    private final RoomDatabase.JournalMode journalMode; // Journal mode passed to Room
+    private final String synchronous;  // PRAGMA synchronous value, null keeps the default
+    private final int cacheSizeKb;     // Page cache size in KB, 0 keeps the default
+    private final long mmapSizeBytes;  // Memory-mapped I/O size in bytes, -1 keeps the default
+    private final int queryThreads;    // Threads of the query executor, 0 keeps Room's executor
+
+    DatabaseTuningProfile(RoomDatabase.JournalMode journalMode, String synchronous, int cacheSizeKb,
+                          long mmapSizeBytes, int queryThreads) {
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.cacheSizeKb = cacheSizeKb;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.queryThreads = queryThreads;
+    }
+
+    /**
+     * Returns the profile selected for this build type, or {@link #DEFAULT} if the name is unknown.
+     *
+     * @return the profile named by BuildConfig.DB_TUNING_PROFILE
+     */
+    public static DatabaseTuningProfile fromBuildConfig() {
+        try {
+            return valueOf(BuildConfig.DB_TUNING_PROFILE);
+        } catch (IllegalArgumentException e) {
+            return DEFAULT;
+        }
+    }
+
+    /**
+     * Applies the journal mode, executors and open-time pragmas of this profile to a builder.
+     *
+     * @param builder the Room builder of the database
+     * @param <T>     the database type
+     * @return the same builder, for chaining
+     */
+    public <T extends RoomDatabase> RoomDatabase.Builder<T> applyTo(RoomDatabase.Builder<T> builder) {
+        builder.setJournalMode(journalMode);
+
+        if (queryThreads > 0) {
+            builder.setQueryExecutor(Executors.newFixedThreadPool(queryThreads));
+            builder.setTransactionExecutor(Executors.newSingleThreadExecutor()); // SQLite has a single writer
+        }
+
+        if (this != DEFAULT) {
+            builder.addCallback(new RoomDatabase.Callback() {
+                @Override
+                public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                    super.onOpen(db);
+                    applyPragmas(db);
+                }
+            });
+        }
+        return builder;
+    }
+
+    // These PRAGMAs are per connection, so they are set on every current and future pool connection
+    private void applyPragmas(SupportSQLiteDatabase db) {
+        if (synchronous != null) {
+            applyPragma(db, "PRAGMA synchronous = " + synchronous);
+        }
+        if (cacheSizeKb > 0) {
+            applyPragma(db, "PRAGMA cache_size = -" + cacheSizeKb); // Negative value is in KB
+        }
+        if (mmapSizeBytes >= 0) {
+            applyPragma(db, "PRAGMA mmap_size = " + mmapSizeBytes);
+        }
+    }
+
+    // Falls back to the current connection only where the platform cannot run per-connection SQL
+    private static void applyPragma(SupportSQLiteDatabase db, String sql) {
+        if (db.isExecPerConnectionSQLSupported()) {
+            db.execPerConnectionSQL(sql, null);
+        } else {
+            Pragmas.run(db, sql);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.sugarsteps.DB;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * SQLite triggers that keep the LevelProgress and UserLevelCounter counters in sync with the
+ * Lesson and LessonProgress tables.
+ *
+ * Room has no annotation for triggers, so they are created here from every path that
+ * creates the counter tables: a fresh database, the schema migrations, a destructive
+ * migration and the copy of the prebuilt database asset.
+ *
+ * Features:
+ * - Lesson insert: adds the new lesson to its level (creating the level row if needed).
+ * - Lesson delete: removes the old lesson from its level, and its flags from every user's counters.
+ * - Lesson update of level: moves the lesson, and every user's flags on it, to the new level.
+ * - Progress insert, update of done or like, and delete: adjusts the user's counters of the
+ *   lesson's level (creating the row if needed).
+ * - Rebuild: recomputes every counter from the Lesson and LessonProgress tables.
+ *
+ * @author Sivan Lasri
+ * @version 3.0
+ */
+public final class LevelProgressTriggers {
+
+    private static final String ADD_NEW = ""
+            + "INSERT OR IGNORE INTO LevelProgress (level, lesson_count) "
+            + "SELECT NEW.level, 0 WHERE NEW.level IS NOT NULL; "
+            + "UPDATE LevelProgress SET lesson_count = lesson_count + 1 WHERE level = NEW.level; ";
+
+    private static final String REMOVE_OLD = ""
+            + "UPDATE LevelProgress SET lesson_count = lesson_count - 1 WHERE level = OLD.level; ";
+
+    // Level of the lesson a progress row belongs to
+    private static final String LEVEL_OF_NEW = "(SELECT level FROM Lesson WHERE lessonId = NEW.lessonId)";
+    private static final String LEVEL_OF_OLD = "(SELECT level FROM Lesson WHERE lessonId = OLD.lessonId)";
+
+    private static final String ADD_NEW_PROGRESS = ""
+            + "INSERT OR IGNORE INTO UserLevelCounter (userId, level, done_count, liked_count) "
+            + "SELECT NEW.userId, level, 0, 0 FROM Lesson WHERE lessonId = NEW.lessonId AND level IS NOT NULL; "
+            + "UPDATE UserLevelCounter SET done_count = done_count + NEW.done, liked_count = liked_count + NEW.`like` "
+            + "WHERE userId = NEW.userId AND level = " + LEVEL_OF_NEW + "; ";
+
+    // Adds (sign "+") or removes (sign "-") the flags of every user's progress on a lesson,
+    // to or from the counters of the given level
+    private static String moveLessonProgress(String sign, String lessonId, String level) {
+        String flag = "(SELECT %s FROM LessonProgress WHERE LessonProgress.userId = UserLevelCounter.userId "
+                + "AND LessonProgress.lessonId = " + lessonId + ")";
+        return "UPDATE UserLevelCounter SET done_count = done_count " + sign + " " + String.format(flag, "done")
+                + ", liked_count = liked_count " + sign + " " + String.format(flag, "`like`")
+                + " WHERE level = " + level
+                + " AND userId IN (SELECT userId FROM LessonProgress WHERE lessonId = " + lessonId + "); ";
+    }
+
+    private static final String[] CREATE_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS level_progress_after_insert AFTER INSERT ON Lesson BEGIN "
+                    + ADD_NEW + "END",
+            "CREATE TRIGGER IF NOT EXISTS level_progress_after_delete AFTER DELETE ON Lesson BEGIN "
+                    + REMOVE_OLD + "END",
+            "CREATE TRIGGER IF NOT EXISTS level_progress_after_update AFTER UPDATE OF level ON Lesson "
+                    + "WHEN OLD.level IS NOT NEW.level BEGIN "
+                    + REMOVE_OLD + ADD_NEW + "END",
+
+            // Before the delete: the progress rows are removed by the cascade after the lesson row,
+            // when their own delete trigger can no longer find the lesson's level
+            "CREATE TRIGGER IF NOT EXISTS user_level_counter_before_lesson_delete BEFORE DELETE ON Lesson BEGIN "
+                    + moveLessonProgress("-", "OLD.lessonId", "OLD.level") + "END",
+            "CREATE TRIGGER IF NOT EXISTS user_level_counter_after_lesson_update AFTER UPDATE OF level ON Lesson "
+                    + "WHEN OLD.level IS NOT NEW.level BEGIN "
+                    + moveLessonProgress("-", "NEW.lessonId", "OLD.level")
+                    + "INSERT OR IGNORE INTO UserLevelCounter (userId, level, done_count, liked_count) "
+                    + "SELECT userId, NEW.level, 0, 0 FROM LessonProgress "
+                    + "WHERE lessonId = NEW.lessonId AND NEW.level IS NOT NULL; "
+                    + moveLessonProgress("+", "NEW.lessonId", "NEW.level") + "END",
+            "CREATE TRIGGER IF NOT EXISTS user_level_counter_after_progress_insert AFTER INSERT ON LessonProgress BEGIN "
+                    + ADD_NEW_PROGRESS + "END",
+            "CREATE TRIGGER IF NOT EXISTS user_level_counter_after_progress_update AFTER UPDATE OF done, `like` "
+                    + "ON LessonProgress BEGIN "
+                    + "UPDATE UserLevelCounter SET done_count = done_count + NEW.done - OLD.done, "
+                    + "liked_count = liked_count + NEW.`like` - OLD.`like` "
+                    + "WHERE userId = NEW.userId AND level = " + LEVEL_OF_NEW + "; END",
+            "CREATE TRIGGER IF NOT EXISTS user_level_counter_after_progress_delete AFTER DELETE ON LessonProgress BEGIN "
+                    + "UPDATE UserLevelCounter SET done_count = done_count - OLD.done, "
+                    + "liked_count = liked_count - OLD.`like` "
+                    + "WHERE userId = OLD.userId AND level = " + LEVEL_OF_OLD + "; END"
+    };
+
+    private LevelProgressTriggers() {
+        // Static helpers only
+    }
+
+    /**
+     * Creates the triggers. Safe to call more than once.
+     *
+     * @param db the database holding the Lesson, LessonProgress and counter tables
+     */
+    public static void create(SupportSQLiteDatabase db) {
+        for (String sql : CREATE_TRIGGERS) {
+            db.execSQL(sql);
+        }
+    }
+
+    /**
+     * Recomputes every counter from the Lesson and LessonProgress tables.
+     *
+     * @param db the database holding the Lesson, LessonProgress and counter tables
+     */
+    public static void rebuild(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM LevelProgress");
+        db.execSQL("INSERT INTO LevelProgress (level, lesson_count) "
+                + "SELECT level, COUNT(*) FROM Lesson WHERE level IS NOT NULL GROUP BY level");
+        db.execSQL("DELETE FROM UserLevelCounter");
+        db.execSQL("INSERT INTO UserLevelCounter (userId, level, done_count, liked_count) "
+                + "SELECT LessonProgress.userId, Lesson.level, SUM(LessonProgress.done), SUM(LessonProgress.`like`) "
+                + "FROM LessonProgress JOIN Lesson ON Lesson.lessonId = LessonProgress.lessonId "
+                + "WHERE Lesson.level IS NOT NULL GROUP BY LessonProgress.userId, Lesson.level");
+    }
+}
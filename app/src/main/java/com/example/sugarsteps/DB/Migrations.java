@@ -0,0 +1,313 @@
+package com.example.sugarsteps.DB;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.sugarsteps.lesson.LessonSearchIndex;
+import com.example.sugarsteps.lesson.RecipeContent;
+
+/**
+ * Incremental schema migrations of {@link SugarStepsDataBase}.
+ *
+ * Every schema bump gets its own {@link Migration}, so an upgrade keeps user-created lessons,
+ * progress and imported media instead of wiping and re-seeding the database.
+ * The exported schema of every version is kept under app/schemas and is used by the migration tests.
+ *
+ * Features:
+ * - 15 → 16: index on Lesson.level.
+ * - 16 → 17: LessonFts full-text search table, backfilled from the existing lessons.
+ * - 17 → 18: LevelProgress counters table, its triggers, and the counters of the existing lessons.
+ * - 18 → 19: RecipeContent table, with a one-time import of every lesson's recipe file.
+ * - 19 → 20: per-user LessonProgress table; the shared done and like flags are moved off the
+ *   Lesson row and LevelProgress keeps only the lesson count.
+ * - 20 → 21: Lesson, User and LevelProgress levels stored as LessonLevel integer codes
+ *   instead of Hebrew strings.
+ * - 21 → 22: UserLevelCounter table of per-user done and liked counts, its triggers, and the
+ *   counters of the existing progress rows.
+ *
+ * Migrations that create triggers keep their own copy of the trigger SQL, so an older step
+ * always builds the schema of its own version.
+ *
+ * @author Sivan Lasri
+ * @version 6.0
+ */
+public final class Migrations {
+
+    /** Oldest schema version that can still be migrated; older databases are rebuilt. */
+    public static final int OLDEST_MIGRATABLE_VERSION = 15;
+
+    /** LevelProgress triggers of schema 18, which still counted the done and like columns of Lesson. */
+    private static final String[] LEVEL_PROGRESS_TRIGGERS_18 = {
+            "CREATE TRIGGER IF NOT EXISTS level_progress_after_insert AFTER INSERT ON Lesson BEGIN "
+                    + "INSERT OR IGNORE INTO LevelProgress (level, lesson_count, done_count, liked_count) "
+                    + "SELECT NEW.level, 0, 0, 0 WHERE NEW.level IS NOT NULL; "
+                    + "UPDATE LevelProgress SET lesson_count = lesson_count + 1, done_count = done_count + NEW.done, "
+                    + "liked_count = liked_count + NEW.`like` WHERE level = NEW.level; END",
+            "CREATE TRIGGER IF NOT EXISTS level_progress_after_delete AFTER DELETE ON Lesson BEGIN "
+                    + "UPDATE LevelProgress SET lesson_count = lesson_count - 1, done_count = done_count - OLD.done, "
+                    + "liked_count = liked_count - OLD.`like` WHERE level = OLD.level; END",
+            "CREATE TRIGGER IF NOT EXISTS level_progress_after_update AFTER UPDATE OF level, done, `like` ON Lesson BEGIN "
+                    + "UPDATE LevelProgress SET lesson_count = lesson_count - 1, done_count = done_count - OLD.done, "
+                    + "liked_count = liked_count - OLD.`like` WHERE level = OLD.level; "
+                    + "INSERT OR IGNORE INTO LevelProgress (level, lesson_count, done_count, liked_count) "
+                    + "SELECT NEW.level, 0, 0, 0 WHERE NEW.level IS NOT NULL; "
+                    + "UPDATE LevelProgress SET lesson_count = lesson_count + 1, done_count = done_count + NEW.done, "
+                    + "liked_count = liked_count + NEW.`like` WHERE level = NEW.level; END"
+    };
+
+    /** LevelProgress triggers of schemas 20 and 21, which counted lessons only. */
+    private static final String[] LEVEL_PROGRESS_TRIGGERS_20 = {
+            "CREATE TRIGGER IF NOT EXISTS level_progress_after_insert AFTER INSERT ON Lesson BEGIN "
+                    + "INSERT OR IGNORE INTO LevelProgress (level, lesson_count) "
+                    + "SELECT NEW.level, 0 WHERE NEW.level IS NOT NULL; "
+                    + "UPDATE LevelProgress SET lesson_count = lesson_count + 1 WHERE level = NEW.level; END",
+            "CREATE TRIGGER IF NOT EXISTS level_progress_after_delete AFTER DELETE ON Lesson BEGIN "
+                    + "UPDATE LevelProgress SET lesson_count = lesson_count - 1 WHERE level = OLD.level; END",
+            "CREATE TRIGGER IF NOT EXISTS level_progress_after_update AFTER UPDATE OF level ON Lesson "
+                    + "WHEN OLD.level IS NOT NEW.level BEGIN "
+                    + "UPDATE LevelProgress SET lesson_count = lesson_count - 1 WHERE level = OLD.level; "
+                    + "INSERT OR IGNORE INTO LevelProgress (level, lesson_count) "
+                    + "SELECT NEW.level, 0 WHERE NEW.level IS NOT NULL; "
+                    + "UPDATE LevelProgress SET lesson_count = lesson_count + 1 WHERE level = NEW.level; END"
+    };
+
+    /**
+     * Level code of a Hebrew level name column in schema 21, the codes of LessonLevel at the time.
+     * Unknown names become NULL, like a lesson without a level.
+     */
+    private static final String LEVEL_CODE_21 =
+            "CASE level WHEN 'מתחילים' THEN 0 WHEN 'מתקדמים' THEN 1 WHEN 'מומחים' THEN 2 END";
+
+    private Migrations() {
+        // Static helpers only
+    }
+
+    /**
+     * Adds the index on the level column, used by the per-level lesson queries.
+     */
+    public static final Migration MIGRATION_15_16 = new Migration(15, 16) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_Lesson_level` ON `Lesson` (`level`)");
+        }
+    };
+
+    /**
+     * Creates the full-text search table and indexes every existing lesson.
+     * Needs a context to read the recipe files of the lessons.
+     *
+     * @param context context used to open recipe resources
+     * @return the 16 → 17 migration
+     */
+    public static Migration migration16To17(Context context) {
+        Context appContext = context.getApplicationContext();
+        return new Migration(16, 17) {
+            @Override
+            public void migrate(@NonNull SupportSQLiteDatabase db) {
+                db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `LessonFts` USING FTS4("
+                        + "`lesson_name` TEXT NOT NULL, `short_description` TEXT NOT NULL, "
+                        + "`recipe_text` TEXT NOT NULL, tokenize=unicode61)");
+
+                try (Cursor cursor = db.query("SELECT lessonId, lesson_name, short_description, long_description FROM Lesson")) {
+                    while (cursor.moveToNext()) {
+                        ContentValues values = new ContentValues();
+                        values.put("rowid", cursor.getInt(0));
+                        values.put("lesson_name", cursor.getString(1));
+                        values.put("short_description", cursor.getString(2));
+                        values.put("recipe_text", LessonSearchIndex.readRecipeText(appContext, cursor.getString(3)));
+                        db.insert("LessonFts", SQLiteDatabase.CONFLICT_REPLACE, values);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Adds the per-level progress counters and the triggers that maintain them.
+     */
+    public static final Migration MIGRATION_17_18 = new Migration(17, 18) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `LevelProgress` (`level` TEXT NOT NULL, "
+                    + "`lesson_count` INTEGER NOT NULL, `done_count` INTEGER NOT NULL, "
+                    + "`liked_count` INTEGER NOT NULL, PRIMARY KEY(`level`))");
+            for (String sql : LEVEL_PROGRESS_TRIGGERS_18) {
+                db.execSQL(sql);
+            }
+            db.execSQL("INSERT INTO LevelProgress (level, lesson_count, done_count, liked_count) "
+                    + "SELECT level, COUNT(*), SUM(done), SUM(`like`) FROM Lesson WHERE level IS NOT NULL GROUP BY level");
+        }
+    };
+
+    /**
+     * Creates the compressed recipe table and imports the recipe of every existing lesson,
+     * from its bundled R.raw resource or its file in internal storage.
+     * Needs a context to read the recipe files.
+     *
+     * @param context context used to open recipe resources
+     * @return the 18 → 19 migration
+     */
+    public static Migration migration18To19(Context context) {
+        Context appContext = context.getApplicationContext();
+        return new Migration(18, 19) {
+            @Override
+            public void migrate(@NonNull SupportSQLiteDatabase db) {
+                db.execSQL("CREATE TABLE IF NOT EXISTS `RecipeContent` (`lessonId` INTEGER NOT NULL, "
+                        + "`content` BLOB NOT NULL, `text_length` INTEGER NOT NULL, PRIMARY KEY(`lessonId`), "
+                        + "FOREIGN KEY(`lessonId`) REFERENCES `Lesson`(`lessonId`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+
+                try (Cursor cursor = db.query("SELECT lessonId, long_description FROM Lesson")) {
+                    while (cursor.moveToNext()) {
+                        int lessonId = cursor.getInt(0);
+                        RecipeContent recipe = RecipeContent.fromText(lessonId,
+                                LessonSearchIndex.readRecipeText(appContext, cursor.getString(1)));
+
+                        ContentValues values = new ContentValues();
+                        values.put("lessonId", lessonId);
+                        values.put("content", recipe.getContent());
+                        values.put("text_length", recipe.getTextLength());
+                        db.insert("RecipeContent", SQLiteDatabase.CONFLICT_REPLACE, values);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Moves the done and like flags into the per-user LessonProgress table.
+     *
+     * The flags were shared by every profile on the device, so each existing user gets a copy
+     * of the flags they saw before the upgrade. The Lesson table is then rebuilt without the two
+     * columns (create, copy, drop, rename), and LevelProgress is rebuilt with the lesson count only.
+     * Foreign keys are not enforced while migrations run, so dropping the old Lesson table does
+     * not cascade into RecipeContent or LessonProgress.
+     */
+    public static final Migration MIGRATION_19_20 = new Migration(19, 20) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `LessonProgress` (`userId` INTEGER NOT NULL, "
+                    + "`lessonId` INTEGER NOT NULL, `done` INTEGER NOT NULL DEFAULT 0, `like` INTEGER NOT NULL DEFAULT 0, "
+                    + "PRIMARY KEY(`userId`, `lessonId`), "
+                    + "FOREIGN KEY(`userId`) REFERENCES `User`(`userId`) ON UPDATE NO ACTION ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`lessonId`) REFERENCES `Lesson`(`lessonId`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_LessonProgress_lessonId` ON `LessonProgress` (`lessonId`)");
+            db.execSQL("INSERT INTO LessonProgress (userId, lessonId, done, `like`) "
+                    + "SELECT User.userId, Lesson.lessonId, Lesson.done, Lesson.`like` FROM User, Lesson "
+                    + "WHERE Lesson.done != 0 OR Lesson.`like` != 0");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `Lesson_new` (`lessonId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`lesson_name` TEXT NOT NULL, `lesson_photo` TEXT NOT NULL, `short_description` TEXT NOT NULL, "
+                    + "`lesson_guide` TEXT NOT NULL, `level` TEXT, `lesson_video` TEXT NOT NULL, `long_description` TEXT NOT NULL)");
+            db.execSQL("INSERT INTO Lesson_new (lessonId, lesson_name, lesson_photo, short_description, lesson_guide, "
+                    + "level, lesson_video, long_description) SELECT lessonId, lesson_name, lesson_photo, short_description, "
+                    + "lesson_guide, level, lesson_video, long_description FROM Lesson");
+            db.execSQL("DROP TABLE Lesson"); // Also drops its index and the old counter triggers
+            db.execSQL("ALTER TABLE Lesson_new RENAME TO Lesson");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_Lesson_level` ON `Lesson` (`level`)");
+
+            db.execSQL("DROP TABLE LevelProgress");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `LevelProgress` (`level` TEXT NOT NULL, "
+                    + "`lesson_count` INTEGER NOT NULL, PRIMARY KEY(`level`))");
+            createLevelProgress20(db);
+        }
+    };
+
+    /**
+     * Stores every level as its LessonLevel integer code.
+     *
+     * SQLite cannot change a column's type, so Lesson and User are rebuilt (create, copy with the
+     * level mapped to its code, drop, rename) and LevelProgress, which only holds derived counts,
+     * is recreated and refilled. Foreign keys are not enforced while migrations run, so dropping
+     * the old tables does not cascade into their child tables.
+     */
+    public static final Migration MIGRATION_20_21 = new Migration(20, 21) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `Lesson_new` (`lessonId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`lesson_name` TEXT NOT NULL, `lesson_photo` TEXT NOT NULL, `short_description` TEXT NOT NULL, "
+                    + "`lesson_guide` TEXT NOT NULL, `level` INTEGER, `lesson_video` TEXT NOT NULL, `long_description` TEXT NOT NULL)");
+            db.execSQL("INSERT INTO Lesson_new (lessonId, lesson_name, lesson_photo, short_description, lesson_guide, "
+                    + "level, lesson_video, long_description) SELECT lessonId, lesson_name, lesson_photo, short_description, "
+                    + "lesson_guide, " + LEVEL_CODE_21 + ", lesson_video, long_description FROM Lesson");
+            db.execSQL("DROP TABLE Lesson"); // Also drops its index and the counter triggers
+            db.execSQL("ALTER TABLE Lesson_new RENAME TO Lesson");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_Lesson_level` ON `Lesson` (`level`)");
+
+            db.execSQL("CREATE TABLE IF NOT EXISTS `User_new` (`userId` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`username` TEXT NOT NULL, `role` TEXT NOT NULL, `gender` TEXT, `level` INTEGER DEFAULT 0, "
+                    + "`phone_number` TEXT, `ic_age` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO User_new (userId, username, role, gender, level, phone_number, ic_age) "
+                    + "SELECT userId, username, role, gender, " + LEVEL_CODE_21 + ", phone_number, ic_age FROM User");
+            db.execSQL("DROP TABLE User");
+            db.execSQL("ALTER TABLE User_new RENAME TO User");
+
+            db.execSQL("DROP TABLE LevelProgress");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `LevelProgress` (`level` INTEGER NOT NULL, "
+                    + "`lesson_count` INTEGER NOT NULL, PRIMARY KEY(`level`))");
+            createLevelProgress20(db);
+        }
+    };
+
+    /**
+     * Adds the per-user done and liked counters of every level, the triggers that maintain them,
+     * and the counters of the existing progress rows.
+     */
+    public static final Migration MIGRATION_21_22 = new Migration(21, 22) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `UserLevelCounter` (`userId` INTEGER NOT NULL, "
+                    + "`level` INTEGER NOT NULL, `done_count` INTEGER NOT NULL, `liked_count` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`userId`, `level`), "
+                    + "FOREIGN KEY(`userId`) REFERENCES `User`(`userId`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            LevelProgressTriggers.create(db);
+            LevelProgressTriggers.rebuild(db);
+        }
+    };
+
+    // Adds the lesson count triggers of schemas 20 and 21 and fills the recreated LevelProgress table
+    private static void createLevelProgress20(SupportSQLiteDatabase db) {
+        for (String sql : LEVEL_PROGRESS_TRIGGERS_20) {
+            db.execSQL(sql);
+        }
+        db.execSQL("INSERT INTO LevelProgress (level, lesson_count) "
+                + "SELECT level, COUNT(*) FROM Lesson WHERE level IS NOT NULL GROUP BY level");
+    }
+
+    /**
+     * All migrations, oldest first.
+     *
+     * @param context context used by migrations that read bundled files
+     * @return every migration of the database
+     */
+    public static Migration[] all(Context context) {
+        return new Migration[]{
+                MIGRATION_15_16,
+                migration16To17(context),
+                MIGRATION_17_18,
+                migration18To19(context),
+                MIGRATION_19_20,
+                MIGRATION_20_21,
+                MIGRATION_21_22
+        };
+    }
+
+    /**
+     * Schema versions older than {@link #OLDEST_MIGRATABLE_VERSION}, which have no exported
+     * schema and are rebuilt from the seed catalog instead.
+     *
+     * @return the versions 1 to {@link #OLDEST_MIGRATABLE_VERSION} - 1
+     */
+    public static int[] unmigratableVersions() {
+        int[] versions = new int[OLDEST_MIGRATABLE_VERSION - 1];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = i + 1;
+        }
+        return versions;
+    }
+}
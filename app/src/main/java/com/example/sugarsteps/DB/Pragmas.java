@@ -0,0 +1,41 @@
+package com.example.sugarsteps.DB;
+
+import android.database.Cursor;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Runs SQLite PRAGMA statements on a {@link SupportSQLiteDatabase}.
+ *
+ * Features:
+ * - Goes through query(), since execSQL() rejects PRAGMAs that return a row.
+ * - Steps the cursor before closing it: a query cursor is only executed when it is read,
+ *   so a cursor closed unread would never apply the PRAGMA.
+ * - Returns the first column of the first row, for PRAGMAs that report a value.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+final class Pragmas {
+
+    private Pragmas() {
+        // Static helpers only
+    }
+
+    /**
+     * Runs a PRAGMA to completion.
+     *
+     * @param db  the database
+     * @param sql the PRAGMA statement
+     * @return the first column of the first row as a long, or -1 if the PRAGMA returned no row
+     */
+    static long run(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            long value = cursor.moveToFirst() ? cursor.getLong(0) : -1;
+            while (cursor.moveToNext()) {
+                // Some PRAGMAs (incremental_vacuum) do their work row by row
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.sugarsteps.DB;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Process-wide latency registry of the SQL statements run on {@link SugarStepsDataBase}.
+ *
+ * Statements are recorded by {@link TimingOpenHelperFactory} and grouped by their SQL text, which
+ * for DAO methods is a fixed string with "?" placeholders, so every DAO method gets its own entry.
+ *
+ * Features:
+ * - Per-statement latency histogram with p50, p95 and p99, accurate to a quarter of a power of two.
+ * - Call count, total and mean rows, and the number of calls made on the main thread.
+ * - Name of the last thread that ran the statement.
+ * - Lock-free: recording only touches atomics and a concurrent map, it never blocks a query.
+ * - Bounded: at most {@link #MAX_STATEMENTS} entries, later statements share one overflow entry.
+ * - Text dump for {@code adb shell dumpsys activity}, and snapshots for the debug screen.
+ *
+ * @author Sivan Lasri
+ * @version 2.0
+ */
+public final class QueryMetrics {
+
+    /** Most distinct statements kept; the rest are recorded under {@link #OVERFLOW_KEY}. */
+    static final int MAX_STATEMENTS = 256;
+
+    /** Statement key of the calls made once {@link #MAX_STATEMENTS} is reached. */
+    static final String OVERFLOW_KEY = "(other statements)";
+
+    /** Longest SQL text kept as a key. */
+    private static final int MAX_SQL_LENGTH = 200;
+
+    private static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    // Entries by normalized SQL, and the same entries by the exact SQL text Room passed in,
+    // so a known statement is found without normalizing its text again
+    private final ConcurrentHashMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, StatementStats> bySqlText = new ConcurrentHashMap<>();
+
+    private QueryMetrics() {
+        // Single registry per process
+    }
+
+    /** @return the registry of the process */
+    public static QueryMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records one run of a statement.
+     *
+     * @param sql         the statement's SQL text
+     * @param elapsedNano time the statement took, in nanoseconds
+     * @param rows        rows returned by a query or changed by a write
+     */
+    public void record(String sql, long elapsedNano, long rows) {
+        String text = sql == null ? "" : sql;
+        StatementStats stats = bySqlText.get(text); // Lock-free fast path for known statements
+        if (stats == null) {
+            stats = register(text);
+        }
+        stats.record(elapsedNano, rows, Looper.myLooper() == Looper.getMainLooper(),
+                Thread.currentThread().getName());
+    }
+
+    /**
+     * @return a snapshot of every recorded statement, slowest p95 first
+     */
+    @NonNull
+    public List<Snapshot> snapshot() {
+        List<Snapshot> result = new ArrayList<>(statements.size());
+        for (StatementStats stats : statements.values()) {
+            result.add(stats.snapshot());
+        }
+        Collections.sort(result, (a, b) -> Long.compare(b.p95Micros, a.p95Micros));
+        return result;
+    }
+
+    /** Forgets every recorded statement. */
+    public void reset() {
+        bySqlText.clear();
+        statements.clear();
+    }
+
+    // Finds or creates the entry of a statement seen for the first time under this exact text
+    private StatementStats register(String text) {
+        String key = normalize(text);
+        if (!statements.containsKey(key) && statements.size() >= MAX_STATEMENTS) {
+            key = OVERFLOW_KEY;
+        }
+        StatementStats stats = statements.computeIfAbsent(key, StatementStats::new);
+        if (bySqlText.size() < 2 * MAX_STATEMENTS) {
+            bySqlText.putIfAbsent(text, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Writes a table of every recorded statement, slowest p95 first.
+     *
+     * @param prefix line prefix given by dumpsys
+     * @param writer the dump output
+     */
+    public void dump(String prefix, PrintWriter writer) {
+        List<Snapshot> snapshots = snapshot();
+        writer.print(prefix);
+        writer.println("SugarSteps query metrics (" + snapshots.size() + " statements, times in ms):");
+        for (Snapshot s : snapshots) {
+            writer.print(prefix);
+            writer.println(s.toString());
+        }
+    }
+
+    // Collapses whitespace so the same statement written on several lines has a single key
+    private static String normalize(String sql) {
+        String key = sql.trim().replaceAll("\\s+", " ");
+        return key.length() > MAX_SQL_LENGTH ? key.substring(0, MAX_SQL_LENGTH) + "…" : key;
+    }
+
+    /**
+     * Immutable figures of one statement at the time of the snapshot.
+     */
+    public static final class Snapshot {
+
+        public final String sql;          // Normalized SQL text
+        public final long count;          // Number of runs
+        public final long p50Micros;      // Median latency, upper bound of its bucket
+        public final long p95Micros;      // 95th percentile latency
+        public final long p99Micros;      // 99th percentile latency
+        public final long maxMicros;      // Slowest run
+        public final long totalRows;      // Rows over all runs
+        public final long mainThreadCalls; // Runs made on the main thread
+        public final String lastThread;   // Thread of the latest run
+
+        Snapshot(String sql, long count, long p50Micros, long p95Micros, long p99Micros, long maxMicros,
+                 long totalRows, long mainThreadCalls, String lastThread) {
+            this.sql = sql;
+            this.count = count;
+            this.p50Micros = p50Micros;
+            this.p95Micros = p95Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+            this.totalRows = totalRows;
+            this.mainThreadCalls = mainThreadCalls;
+            this.lastThread = lastThread;
+        }
+
+        /** @return the mean number of rows per run */
+        public double getMeanRows() {
+            return count == 0 ? 0 : (double) totalRows / count;
+        }
+
+        /** @return one line with every figure of the statement */
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "n=%d p50=%.2f p95=%.2f p99=%.2f max=%.2f rows=%.1f main=%d thread=%s | %s",
+                    count, p50Micros / 1000.0, p95Micros / 1000.0, p99Micros / 1000.0, maxMicros / 1000.0,
+                    getMeanRows(), mainThreadCalls, lastThread, sql);
+        }
+    }
+
+    /**
+     * Counters of a single statement.
+     *
+     * Latencies are kept in microseconds in log-scaled buckets: values below 4 µs have a bucket
+     * each, and every power of two above is split into 4 buckets, so 128 buckets reach past an hour.
+     */
+    static final class StatementStats {
+
+        static final int BUCKETS = 128;
+
+        private final String sql;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLong totalRows = new AtomicLong();
+        private final AtomicLong mainThreadCalls = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+        private volatile String lastThread = "";
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long elapsedNano, long rows, boolean onMainThread, String threadName) {
+            long micros = Math.max(0, elapsedNano / 1000);
+            buckets.incrementAndGet(bucketOf(micros));
+            totalRows.addAndGet(Math.max(0, rows));
+            if (onMainThread) {
+                mainThreadCalls.incrementAndGet();
+            }
+            long max;
+            while (micros > (max = maxMicros.get()) && !maxMicros.compareAndSet(max, micros)) {
+                // Retry until this run is stored or a slower one won
+            }
+            lastThread = threadName;
+        }
+
+        Snapshot snapshot() {
+            long[] copy = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = buckets.get(i);
+                total += copy[i];
+            }
+            return new Snapshot(sql, total, percentile(copy, total, 0.50), percentile(copy, total, 0.95),
+                    percentile(copy, total, 0.99), maxMicros.get(), totalRows.get(), mainThreadCalls.get(),
+                    lastThread);
+        }
+
+        // Upper bound, in microseconds, of the bucket holding the given fraction of the runs
+        static long percentile(long[] counts, long total, double fraction) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * fraction);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBoundOf(i);
+                }
+            }
+            return upperBoundOf(counts.length - 1);
+        }
+
+        // Bucket of a latency, in microseconds
+        static int bucketOf(long micros) {
+            if (micros < 4) {
+                return (int) micros;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(micros);      // floor(log2), at least 2
+            int sub = (int) (micros >> (exponent - 2)) - 4;             // Quarter of the power of two, 0..3
+            return Math.min(BUCKETS - 1, 4 * (exponent - 1) + sub);
+        }
+
+        // Exclusive upper bound of a bucket, in microseconds: the lowest latency of the next bucket
+        static long upperBoundOf(int bucket) {
+            if (bucket < 4) {
+                return bucket + 1;
+            }
+            int exponent = bucket / 4 + 1;
+            int sub = bucket % 4;
+            return (long) (5 + sub) << (exponent - 2);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.sugarsteps.DB;
+
+import android.content.Context;
+import android.util.JsonReader;
+import android.util.Log;
+
+import com.example.sugarsteps.lesson.Lesson;
+import com.example.sugarsteps.lesson.LessonLevel;
+import com.example.sugarsteps.lesson.LessonSearchIndex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the bundled seed catalog (assets/seed_lessons.json) into the database.
+ *
+ * The manifest holds a "lessons" array. Every lesson has a name, short_description, guide, level
+ * (a {@link LessonLevel} name, e.g. "BEGINNER") and the photo, video and recipe media. Media are written as "type/name" of a bundled resource
+ * (e.g. "raw/halot_recipe") and become android.resource:// URIs. Values that already have a
+ * scheme are kept as they are.
+ *
+ * Features:
+ * - Stream-parses the manifest with {@link JsonReader}, without building a JSON tree.
+ * - Reads the recipe text for the search index before any transaction is opened.
+ * - Inserts every lesson and its search entry in one transaction, so a first launch
+ *   never shows a half-populated catalog.
+ * - A malformed manifest (bad JSON structure, unknown level) or a failed insert is logged and
+ *   leaves the catalog empty; it never crashes the first launch.
+ *
+ * @author Sivan Lasri
+ * @version 3.0
+ */
+public final class SeedCatalogLoader {
+
+    private static final String TAG = "SeedCatalogLoader";
+
+    /** Asset name of the seed catalog manifest. */
+    public static final String SEED_ASSET = "seed_lessons.json";
+
+    private SeedCatalogLoader() {
+        // Static helpers only
+    }
+
+    /**
+     * Seeds the database with the bundled catalog. Must be called off the main thread.
+     *
+     * @param context  context used to open the asset and the recipe resources
+     * @param database the database to seed
+     */
+    public static void seed(Context context, SugarStepsDataBase database) {
+        try {
+            List<Lesson> lessons = load(context);
+            String[] recipes = new String[lessons.size()];
+            for (int i = 0; i < lessons.size(); i++) {
+                recipes[i] = LessonSearchIndex.readRecipeText(context, lessons.get(i).getLongDescription());
+            }
+            database.lessonsDao().insertAllIndexed(lessons, recipes);
+        } catch (IOException | RuntimeException e) {
+            // Runs on a bare executor: a broken manifest leaves the catalog empty rather than crashing the first launch
+            Log.e(TAG, "Could not seed the lesson catalog", e);
+        }
+    }
+
+    /**
+     * Parses the bundled seed catalog.
+     *
+     * @param context context used to open the asset
+     * @return the lessons of the catalog, in manifest order
+     * @throws IOException if the asset is missing or malformed
+     */
+    public static List<Lesson> load(Context context) throws IOException {
+        try (InputStream inputStream = context.getAssets().open(SEED_ASSET)) {
+            return parse(inputStream, context.getPackageName());
+        }
+    }
+
+    /**
+     * Parses a seed catalog manifest from a stream.
+     *
+     * @param inputStream the manifest JSON
+     * @param packageName package that owns the bundled media resources
+     * @return the lessons of the catalog, in manifest order
+     * @throws IOException if the manifest is malformed, including an unknown level
+     */
+    public static List<Lesson> parse(InputStream inputStream, String packageName) throws IOException {
+        List<Lesson> lessons = new ArrayList<>();
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals("lessons")) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        lessons.add(readLesson(reader, packageName));
+                    }
+                    reader.endArray();
+                } else {
+                    reader.skipValue(); // Unknown keys (e.g. "version") are ignored
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // JsonReader reports a wrong structure, and LessonLevel.valueOf an unknown level, unchecked
+            throw new IOException("Malformed seed catalog: " + e.getMessage(), e);
+        }
+        return lessons;
+    }
+
+    /**
+     * Reads a single lesson object from the manifest.
+     */
+    private static Lesson readLesson(JsonReader reader, String packageName) throws IOException {
+        String name = "", photo = "", shortDescription = "", guide = "", video = "", recipe = "";
+        LessonLevel level = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "name": name = reader.nextString(); break;
+                case "photo": photo = toUri(reader.nextString(), packageName); break;
+                case "short_description": shortDescription = reader.nextString(); break;
+                case "guide": guide = reader.nextString(); break;
+                case "level": level = LessonLevel.valueOf(reader.nextString()); break; // Enum name, e.g. "BEGINNER"
+                case "video": video = toUri(reader.nextString(), packageName); break;
+                case "recipe": recipe = toUri(reader.nextString(), packageName); break;
+                default: reader.skipValue(); break;
+            }
+        }
+        reader.endObject();
+
+        return new Lesson(name, photo, shortDescription, guide, level, video, recipe);
+    }
+
+    /**
+     * Turns a "type/name" resource reference into an android.resource:// URI.
+     * By-name URIs stay valid across builds, unlike numeric resource IDs.
+     */
+    private static String toUri(String value, String packageName) {
+        if (value.isEmpty() || value.contains("://")) return value;
+        return "android.resource://" + packageName + "/" + value;
+    }
+}
@@ -1,23 +1,39 @@
 package com.example.sugarsteps.DB;
 
 import android.content.Context;
+import androidx.annotation.VisibleForTesting;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.TypeConverters;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
-import com.example.sugarsteps.R;
 import com.example.sugarsteps.lesson.Lesson;
+import com.example.sugarsteps.lesson.LessonFts;
+import com.example.sugarsteps.lesson.LessonProgress;
 import com.example.sugarsteps.lesson.LessonsDao;
+import com.example.sugarsteps.lesson.LevelProgress;
+import com.example.sugarsteps.lesson.RecipeContent;
+import com.example.sugarsteps.lesson.UserLevelCounter;
 import com.example.sugarsteps.user.User;
 import com.example.sugarsteps.user.UserDao;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.concurrent.Executors;
 
-@Database(entities = {User.class, Lesson.class}, version = 15, exportSchema = false)
+@Database(entities = {User.class, Lesson.class, LessonFts.class, LevelProgress.class, RecipeContent.class,
+        LessonProgress.class, UserLevelCounter.class}, version = 22, exportSchema = true)
+@TypeConverters(Converters.class) // Levels are stored as integer codes
 // Annotate the class as a Room database including the entities it manages and the version number.
 public abstract class SugarStepsDataBase extends RoomDatabase {
 
+    // Name of the database file on the device
+    static final String DATABASE_NAME = "sugarsteps_database";
+
+    // Prebuilt database generated at build time from the seed catalog (see GenerateSeedDatabaseTask)
+    static final String PREPACKAGED_ASSET = "databases/" + DATABASE_NAME + ".db";
+
     // Declare abstract methods to get DAO instances for each entity.
     public abstract UserDao usersDao();
     public abstract LessonsDao lessonsDao();
@@ -30,102 +46,95 @@ public abstract class SugarStepsDataBase extends RoomDatabase {
         if (INSTANCE == null) {
             synchronized (SugarStepsDataBase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
-                                    context.getApplicationContext(),
-                                    SugarStepsDataBase.class,
-                                    "sugarsteps_database"
-                            )
-                            .fallbackToDestructiveMigration()
-                            .addCallback(new RoomDatabase.Callback() {
-                                @Override
-                                public void onCreate(@androidx.annotation.NonNull SupportSQLiteDatabase db) {
-                                    super.onCreate(db);
-
-                                    // Inserting default lessons
-                                    Executors.newSingleThreadExecutor().execute(() -> {
-                                        SugarStepsDataBase database = getDatabase(context);
-                                        LessonsDao dao = database.lessonsDao();
-
-                                        dao.insertLesson(new Lesson( "חלות עם ריח ממכר", // Lesson title
-                                                "android.resource://com.example.sugarsteps/" + R.drawable.halot_lesson,               // Lesson image resource
-                                                "חלות שלא תרצו להפסיק להכין",        // Lesson short description
-                                                "סיון לסרי",                          // Author
-                                                "מומחים",                            // Level (note: in filter use matching string)
-                                                "android.resource://com.example.sugarsteps/" + R.raw.halot,  // Audio/video resource URI
-                                                "android.resource://com.example.sugarsteps/" + R.raw.halot_recipe  // Url to text file
-                                                ));
-                                        dao.insertLesson(new Lesson("קאפקייקס נימוחים", // Lesson title
-                                                "android.resource://com.example.sugarsteps/" + R.drawable.cupcakes_lesson,               // Lesson image resource
-                                                "קאפקייקס חלום שקל להכין!",        // Lesson short description
-                                                "סיון לסרי",                          // Author
-                                                "מתחילים",                            // Level (note: in filter use matching string)
-                                                "android.resource://com.example.sugarsteps/" + R.raw.cupcakes,  // Audio/video resource URI
-                                                "android.resource://com.example.sugarsteps/" + R.raw.cupcakes_recipe   // Url to text file
-                                                ));
-                                        dao.insertLesson(new Lesson("עוגיות שוקולד צ׳יפס", // Lesson title
-                                                "android.resource://com.example.sugarsteps/" + R.drawable.chocolate_chips_lesson,               // Lesson image resource
-                                                "המתכון הקלאסי לעוגיות שלמות!",        // Lesson short description
-                                                "סיון לסרי",                          // Author
-                                                "מתחילים",                            // Level (note: in filter use matching string)
-                                                "android.resource://com.example.sugarsteps/" + R.raw.chocalate_chips_cookies,  // Audio/video resource URI
-                                                "android.resource://com.example.sugarsteps/" + R.raw.chocalate_chips_recipe   // Url to text file
-                                        ));
-                                        dao.insertLesson(new Lesson("עוגת תפוזים רכה", // Lesson title
-                                                "android.resource://com.example.sugarsteps/" + R.drawable.orange_cake_lesson,               // Lesson image resource
-                                                "ה-מתכון לעוגת תפוזים אוורירית",        // Lesson short description
-                                                "סיון לסרי",                          // Author
-                                                "מתקדמים",                            // Level (note: in filter use matching string)
-                                                "android.resource://com.example.sugarsteps/" + R.raw.orange_cake,  // Audio/video resource URI
-                                                "android.resource://com.example.sugarsteps/" + R.raw.orange_cake_recipe  // Url to text file
-                                        ));
-                                        dao.insertLesson(new Lesson("עוגת שמרים שעושה חשק", // Lesson title
-                                                "android.resource://com.example.sugarsteps/" + R.drawable.shmarim_cake_lesson,               // Lesson image resource
-                                                "מתכון הכי מקצועי שיש לשמרים",        // Lesson short description
-                                                "סיון לסרי",                          // Author
-                                                "מומחים",                            // Level (note: in filter use matching string)
-                                                "android.resource://com.example.sugarsteps/" + R.raw.shmarim_cake,  // Audio/video resource URI
-                                                "android.resource://com.example.sugarsteps/" + R.raw.shmarim_cake_recipe  // Url to text file
-                                        ));
-                                        dao.insertLesson(new Lesson("עוגת קרמבו", // Lesson title
-                                                "android.resource://com.example.sugarsteps/" + R.drawable.three_layers_cake_lesson,               // Lesson image resource
-                                                "עוגה שלא תרצו להפסיק להכין",        // Lesson short description
-                                                "סיון לסרי",                          // Author
-                                                "מומחים",                            // Level (note: in filter use matching string)
-                                                "android.resource://com.example.sugarsteps/" + R.raw.three_layers_cake,  // Audio/video resource URI
-                                                "android.resource://com.example.sugarsteps/" + R.raw.three_layers_cake_recipe  // Url to text file
-                                        ));
-                                        dao.insertLesson(new Lesson("עוגת גבינה פירורים", // Lesson title
-                                                "android.resource://com.example.sugarsteps/" + R.drawable.cheese_cake_lesson,               // Lesson image resource
-                                                "מתכון שלא ייצא לכם מהראש",        // Lesson short description
-                                                "סיון לסרי",                          // Author
-                                                "מתקדמים",                            // Level (note: in filter use matching string)
-                                                "android.resource://com.example.sugarsteps/" + R.raw.cheese_cake,  // Audio/video resource URI
-                                                "android.resource://com.example.sugarsteps/" + R.raw.cheese_cake_recipe  // Url to text file
-                                        ));
-                                        dao.insertLesson(new Lesson("מגולגלות תמרים", // Lesson title
-                                                "android.resource://com.example.sugarsteps/" + R.drawable.megolgalot_tmarim_lesson,               // Lesson image resource
-                                                "עוגיות שרק בא לחסל",        // Lesson short description
-                                                "סיון לסרי",                          // Author
-                                                "מתחילים",                            // Level (note: in filter use matching string)
-                                                "android.resource://com.example.sugarsteps/" + R.raw.megolgalot_tmarim,  // Audio/video resource URI
-                                                "android.resource://com.example.sugarsteps/" + R.raw.megolgalot_tmarim_recipe  // Url to text file
-                                        ));
-                                        dao.insertLesson(new Lesson("רולדה ריבת חלב", // Lesson title
-                                                "android.resource://com.example.sugarsteps/" + R.drawable.milk_jam_lesson,               // Lesson image resource
-                                                "טעם בלתי נשכח",        // Lesson short description
-                                                "סיון לסרי",                          // Author
-                                                "מתקדמים",                            // Level (note: in filter use matching string)
-                                                "android.resource://com.example.sugarsteps/" + R.raw.milk_jam_roll,  // Audio/video resource URI
-                                                "android.resource://com.example.sugarsteps/" + R.raw.milk_jam_roll_recipe  // Url to text file
-                                        ));
-                                    });
-                                }
-                            })
-                            .build();
+                    Context appContext = context.getApplicationContext();
+                    INSTANCE = buildDatabase(appContext, DATABASE_NAME, hasPrepackagedAsset(appContext),
+                            DatabaseTuningProfile.fromBuildConfig());
                 }
             }
         }
         return INSTANCE;
     }
 
+    // Builds a database. On a fresh install it is copied from the prebuilt asset when asked to,
+    // otherwise it is created empty and seeded by the callback. The tuning profile sets the
+    // journal mode, executors and SQLite pragmas. Every statement is timed into QueryMetrics.
+    @VisibleForTesting
+    static SugarStepsDataBase buildDatabase(Context context, String name, boolean fromAsset,
+                                            DatabaseTuningProfile tuningProfile) {
+        SeedCallback seedCallback = new SeedCallback(context);
+        RoomDatabase.Builder<SugarStepsDataBase> builder = Room.databaseBuilder(context, SugarStepsDataBase.class, name)
+                .addMigrations(Migrations.all(context))                                // Keep user data across schema bumps
+                .fallbackToDestructiveMigrationFrom(Migrations.unmigratableVersions()) // Pre-export schemas are rebuilt
+                .fallbackToDestructiveMigrationOnDowngrade()
+                .addCallback(seedCallback)
+                .openHelperFactory(new TimingOpenHelperFactory());                     // Per-statement latency metrics
+        if (fromAsset) {
+            builder.createFromAsset(PREPACKAGED_ASSET, new RoomDatabase.PrepackagedDatabaseCallback() {
+                @Override
+                public void onOpenPrepackagedDatabase(@androidx.annotation.NonNull SupportSQLiteDatabase db) {
+                    // The asset only holds Room's tables, add the counter triggers and fill the counters
+                    LevelProgressTriggers.create(db);
+                    LevelProgressTriggers.rebuild(db);
+                }
+            });
+        }
+        tuningProfile.applyTo(builder);
+        seedCallback.database = builder.build();
+        return seedCallback.database;
+    }
+
+    // Checks whether the build bundled the prebuilt database
+    @VisibleForTesting
+    static boolean hasPrepackagedAsset(Context context) {
+        try (InputStream ignored = context.getAssets().open(PREPACKAGED_ASSET)) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Seeds a newly created, empty database, or one emptied by a destructive migration.
+    // Not called when the database is copied from the asset.
+    private static class SeedCallback extends RoomDatabase.Callback {
+
+        private final Context context;            // Context used to read the seed catalog
+        private volatile SugarStepsDataBase database; // Database being seeded, set once built
+        private volatile boolean rebuilt;         // Set when a destructive migration dropped every table
+
+        SeedCallback(Context context) {
+            this.context = context;
+        }
+
+        @Override
+        public void onCreate(@androidx.annotation.NonNull SupportSQLiteDatabase db) {
+            super.onCreate(db);
+            createTriggersAndSeed(db);
+        }
+
+        @Override
+        public void onDestructiveMigration(@androidx.annotation.NonNull SupportSQLiteDatabase db) {
+            super.onDestructiveMigration(db);
+            // Called after the tables are dropped but before they are created again,
+            // so the triggers and the seed catalog are added once the database is open
+            rebuilt = true;
+        }
+
+        @Override
+        public void onOpen(@androidx.annotation.NonNull SupportSQLiteDatabase db) {
+            super.onOpen(db);
+            if (rebuilt) {
+                rebuilt = false;
+                createTriggersAndSeed(db);
+            }
+        }
+
+        private void createTriggersAndSeed(SupportSQLiteDatabase db) {
+            // Counter triggers must exist before the first lesson is inserted
+            LevelProgressTriggers.create(db);
+
+            // Inserting default lessons from the bundled seed catalog, in one transaction
+            Executors.newSingleThreadExecutor().execute(() -> SeedCatalogLoader.seed(context, database));
+        }
+    }
+
 }
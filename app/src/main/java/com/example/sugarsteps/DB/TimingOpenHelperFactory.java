@@ -0,0 +1,457 @@
+package com.example.sugarsteps.DB;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteTransactionListener;
+import android.os.CancellationSignal;
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Open helper factory of {@link SugarStepsDataBase} that times every SQL statement Room runs
+ * and records it in {@link QueryMetrics}.
+ *
+ * Room's own query callback only reports the SQL text and arguments before a statement runs,
+ * without its duration or result, so the timing is done one level lower: this factory wraps
+ * the framework helper and hands Room a database whose calls are measured before being
+ * passed through unchanged.
+ *
+ * Features:
+ * - Queries are timed up to the first cursor window, and record their row count.
+ * - Compiled statements (DAO inserts, updates and deletes) record the rows they changed.
+ * - execSQL and the ContentValues writes are timed as well; transactions are not counted.
+ * - The wrapped database is created once per connection, not on every call.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+public class TimingOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+
+    private final SupportSQLiteOpenHelper.Factory delegate; // Factory that opens the real database
+    private final QueryMetrics metrics;                    // Registry receiving the timings
+
+    /** Creates a factory timing the framework SQLite helper into the process registry. */
+    public TimingOpenHelperFactory() {
+        this(new FrameworkSQLiteOpenHelperFactory(), QueryMetrics.getInstance());
+    }
+
+    TimingOpenHelperFactory(SupportSQLiteOpenHelper.Factory delegate, QueryMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteOpenHelper create(@NonNull SupportSQLiteOpenHelper.Configuration configuration) {
+        return new TimingOpenHelper(delegate.create(configuration), metrics);
+    }
+
+    // Helper handing out timed wrappers of the databases opened by the delegate
+    private static class TimingOpenHelper implements SupportSQLiteOpenHelper {
+
+        private final SupportSQLiteOpenHelper delegate;
+        private final QueryMetrics metrics;
+        private volatile TimingDatabase wrapped; // Wrapper of the last connection handed out
+
+        TimingOpenHelper(SupportSQLiteOpenHelper delegate, QueryMetrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Nullable
+        @Override
+        public String getDatabaseName() {
+            return delegate.getDatabaseName();
+        }
+
+        @Override
+        public void setWriteAheadLoggingEnabled(boolean enabled) {
+            delegate.setWriteAheadLoggingEnabled(enabled);
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getWritableDatabase() {
+            return wrap(delegate.getWritableDatabase());
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getReadableDatabase() {
+            return wrap(delegate.getReadableDatabase());
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        // Room asks for the database on every query, reuse the wrapper while the connection is the same
+        private SupportSQLiteDatabase wrap(SupportSQLiteDatabase db) {
+            TimingDatabase current = wrapped;
+            if (current == null || current.delegate != db) {
+                current = new TimingDatabase(db, metrics);
+                wrapped = current;
+            }
+            return current;
+        }
+    }
+
+    // Database passing every call through, timing the ones that run SQL
+    private static class TimingDatabase implements SupportSQLiteDatabase {
+
+        final SupportSQLiteDatabase delegate;
+        private final QueryMetrics metrics;
+
+        TimingDatabase(SupportSQLiteDatabase delegate, QueryMetrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        // Runs the query and fills the first cursor window, which Room's reads do right away anyway
+        private Cursor timed(String sql, QueryRunner runner) {
+            long start = System.nanoTime();
+            Cursor cursor = runner.run();
+            int rows = cursor.getCount();
+            metrics.record(sql, System.nanoTime() - start, rows);
+            return cursor;
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull String query) {
+            return timed(query, () -> delegate.query(query));
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull String query, @NonNull Object[] bindArgs) {
+            return timed(query, () -> delegate.query(query, bindArgs));
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull SupportSQLiteQuery query) {
+            return timed(query.getSql(), () -> delegate.query(query));
+        }
+
+        @NonNull
+        @Override
+        public Cursor query(@NonNull SupportSQLiteQuery query, @Nullable CancellationSignal cancellationSignal) {
+            return timed(query.getSql(), () -> delegate.query(query, cancellationSignal));
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteStatement compileStatement(@NonNull String sql) {
+            return new TimingStatement(delegate.compileStatement(sql), sql, metrics);
+        }
+
+        @Override
+        public void execSQL(@NonNull String sql) throws SQLException {
+            long start = System.nanoTime();
+            delegate.execSQL(sql);
+            metrics.record(sql, System.nanoTime() - start, 0);
+        }
+
+        @Override
+        public void execSQL(@NonNull String sql, @NonNull Object[] bindArgs) throws SQLException {
+            long start = System.nanoTime();
+            delegate.execSQL(sql, bindArgs);
+            metrics.record(sql, System.nanoTime() - start, 0);
+        }
+
+        @Override
+        public long insert(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values)
+                throws SQLException {
+            long start = System.nanoTime();
+            long rowId = delegate.insert(table, conflictAlgorithm, values);
+            metrics.record("INSERT INTO " + table, System.nanoTime() - start, rowId == -1 ? 0 : 1);
+            return rowId;
+        }
+
+        @Override
+        public int delete(@NonNull String table, @Nullable String whereClause, @Nullable Object[] whereArgs) {
+            long start = System.nanoTime();
+            int rows = delegate.delete(table, whereClause, whereArgs);
+            metrics.record("DELETE FROM " + table + (whereClause == null ? "" : " WHERE " + whereClause),
+                    System.nanoTime() - start, rows);
+            return rows;
+        }
+
+        @Override
+        public int update(@NonNull String table, int conflictAlgorithm, @NonNull ContentValues values,
+                          @Nullable String whereClause, @Nullable Object[] whereArgs) {
+            long start = System.nanoTime();
+            int rows = delegate.update(table, conflictAlgorithm, values, whereClause, whereArgs);
+            metrics.record("UPDATE " + table + (whereClause == null ? "" : " WHERE " + whereClause),
+                    System.nanoTime() - start, rows);
+            return rows;
+        }
+
+        // Everything below is passed through untimed
+
+        @Override
+        public void beginTransaction() {
+            delegate.beginTransaction();
+        }
+
+        @Override
+        public void beginTransactionNonExclusive() {
+            delegate.beginTransactionNonExclusive();
+        }
+
+        @Override
+        public void beginTransactionWithListener(@NonNull SQLiteTransactionListener transactionListener) {
+            delegate.beginTransactionWithListener(transactionListener);
+        }
+
+        @Override
+        public void beginTransactionWithListenerNonExclusive(@NonNull SQLiteTransactionListener transactionListener) {
+            delegate.beginTransactionWithListenerNonExclusive(transactionListener);
+        }
+
+        @Override
+        public void endTransaction() {
+            delegate.endTransaction();
+        }
+
+        @Override
+        public void setTransactionSuccessful() {
+            delegate.setTransactionSuccessful();
+        }
+
+        @Override
+        public boolean inTransaction() {
+            return delegate.inTransaction();
+        }
+
+        @Override
+        public boolean isDbLockedByCurrentThread() {
+            return delegate.isDbLockedByCurrentThread();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely() {
+            return delegate.yieldIfContendedSafely();
+        }
+
+        @Override
+        public boolean yieldIfContendedSafely(long sleepAfterYieldDelayMillis) {
+            return delegate.yieldIfContendedSafely(sleepAfterYieldDelayMillis);
+        }
+
+        @Override
+        public boolean isExecPerConnectionSQLSupported() {
+            return delegate.isExecPerConnectionSQLSupported();
+        }
+
+        @Override
+        public void execPerConnectionSQL(@NonNull String sql, @Nullable Object[] bindArgs) {
+            delegate.execPerConnectionSQL(sql, bindArgs);
+        }
+
+        @Override
+        public int getVersion() {
+            return delegate.getVersion();
+        }
+
+        @Override
+        public void setVersion(int version) {
+            delegate.setVersion(version);
+        }
+
+        @Override
+        public long getMaximumSize() {
+            return delegate.getMaximumSize();
+        }
+
+        @Override
+        public long setMaximumSize(long numBytes) {
+            return delegate.setMaximumSize(numBytes);
+        }
+
+        @Override
+        public long getPageSize() {
+            return delegate.getPageSize();
+        }
+
+        @Override
+        public void setPageSize(long numBytes) {
+            delegate.setPageSize(numBytes);
+        }
+
+        @Override
+        public boolean isReadOnly() {
+            return delegate.isReadOnly();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public boolean needUpgrade(int newVersion) {
+            return delegate.needUpgrade(newVersion);
+        }
+
+        @Nullable
+        @Override
+        public String getPath() {
+            return delegate.getPath();
+        }
+
+        @Override
+        public void setLocale(@NonNull Locale locale) {
+            delegate.setLocale(locale);
+        }
+
+        @Override
+        public void setMaxSqlCacheSize(int cacheSize) {
+            delegate.setMaxSqlCacheSize(cacheSize);
+        }
+
+        @Override
+        public void setForeignKeyConstraintsEnabled(boolean enabled) {
+            delegate.setForeignKeyConstraintsEnabled(enabled);
+        }
+
+        @Override
+        public boolean enableWriteAheadLogging() {
+            return delegate.enableWriteAheadLogging();
+        }
+
+        @Override
+        public void disableWriteAheadLogging() {
+            delegate.disableWriteAheadLogging();
+        }
+
+        @Override
+        public boolean isWriteAheadLoggingEnabled() {
+            return delegate.isWriteAheadLoggingEnabled();
+        }
+
+        @Nullable
+        @Override
+        public List<Pair<String, String>> getAttachedDbs() {
+            return delegate.getAttachedDbs();
+        }
+
+        @Override
+        public boolean isDatabaseIntegrityOk() {
+            return delegate.isDatabaseIntegrityOk();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    // Compiled statement timing its execution; binding is passed through
+    private static class TimingStatement implements SupportSQLiteStatement {
+
+        private final SupportSQLiteStatement delegate;
+        private final String sql;
+        private final QueryMetrics metrics;
+
+        TimingStatement(SupportSQLiteStatement delegate, String sql, QueryMetrics metrics) {
+            this.delegate = delegate;
+            this.sql = sql;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void execute() {
+            long start = System.nanoTime();
+            delegate.execute();
+            metrics.record(sql, System.nanoTime() - start, 0);
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            long start = System.nanoTime();
+            int rows = delegate.executeUpdateDelete();
+            metrics.record(sql, System.nanoTime() - start, rows);
+            return rows;
+        }
+
+        @Override
+        public long executeInsert() {
+            long start = System.nanoTime();
+            long rowId = delegate.executeInsert();
+            metrics.record(sql, System.nanoTime() - start, rowId == -1 ? 0 : 1);
+            return rowId;
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            long start = System.nanoTime();
+            long value = delegate.simpleQueryForLong();
+            metrics.record(sql, System.nanoTime() - start, 1);
+            return value;
+        }
+
+        @Nullable
+        @Override
+        public String simpleQueryForString() {
+            long start = System.nanoTime();
+            String value = delegate.simpleQueryForString();
+            metrics.record(sql, System.nanoTime() - start, 1);
+            return value;
+        }
+
+        @Override
+        public void bindNull(int index) {
+            delegate.bindNull(index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            delegate.bindLong(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            delegate.bindDouble(index, value);
+        }
+
+        @Override
+        public void bindString(int index, @NonNull String value) {
+            delegate.bindString(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, @NonNull byte[] value) {
+            delegate.bindBlob(index, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            delegate.clearBindings();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    // Query call whose cursor is timed
+    private interface QueryRunner {
+        Cursor run();
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.sugarsteps;
+
+import android.content.Context;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-app store of screen readiness latencies, recorded by {@link ScreenReadinessTracker}.
+ *
+ * Cold starts happen in a new process, so the samples are kept in a JSON file and survive
+ * process restarts. The same file is the export: it sits in the app's external files directory
+ * and can be pulled without root, e.g.
+ * {@code adb pull /sdcard/Android/data/com.example.sugarsteps/files/screen_metrics.json}.
+ *
+ * Features:
+ * - The newest {@link #MAX_SAMPLES} samples of every screen: time from onCreate to fully drawn,
+ *   and from process start for the screen a launch opened first.
+ * - Per-screen summary with count, median, p90 and max, in {@code dumpsys activity} output.
+ * - File reads and writes run on a single background thread, never on the main thread.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+public final class ScreenMetrics {
+
+    private static final String TAG = "ScreenMetrics";
+
+    /** Name of the store and export file. */
+    static final String FILE_NAME = "screen_metrics.json";
+
+    /** Samples kept per screen, older ones are dropped. */
+    static final int MAX_SAMPLES = 100;
+
+    private static volatile ScreenMetrics instance;
+
+    private final File file; // The store and export file
+    private final Map<String, Deque<Sample>> samples = new LinkedHashMap<>(); // Guarded by this
+    private final ExecutorService io = Executors.newSingleThreadExecutor(); // Loads and saves the file
+
+    /**
+     * One readiness measurement of a screen.
+     */
+    static final class Sample {
+        final long recordedAt;          // Wall clock time of the measurement
+        final long latencyMs;           // onCreate to fully drawn
+        final long sinceProcessStartMs; // Process start to fully drawn, -1 unless opened first by a launch
+
+        Sample(long recordedAt, long latencyMs, long sinceProcessStartMs) {
+            this.recordedAt = recordedAt;
+            this.latencyMs = latencyMs;
+            this.sinceProcessStartMs = sinceProcessStartMs;
+        }
+    }
+
+    private ScreenMetrics(Context context) {
+        File dir = context.getExternalFilesDir(null);
+        this.file = new File(dir != null ? dir : context.getFilesDir(), FILE_NAME); // Internal storage if unmounted
+        io.execute(this::load);
+    }
+
+    /**
+     * @param context any context
+     * @return the store of the process
+     */
+    public static ScreenMetrics getInstance(Context context) {
+        if (instance == null) {
+            synchronized (ScreenMetrics.class) {
+                if (instance == null) {
+                    instance = new ScreenMetrics(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Records a screen's readiness latency and saves the store in the background.
+     *
+     * @param screen              name of the screen
+     * @param latencyMs           time from the screen's onCreate until it was fully drawn
+     * @param sinceProcessStartMs time from process start until it was fully drawn, or -1
+     */
+    public void record(String screen, long latencyMs, long sinceProcessStartMs) {
+        Sample sample = new Sample(System.currentTimeMillis(), latencyMs, sinceProcessStartMs);
+        io.execute(() -> {
+            synchronized (this) {
+                add(screen, sample);
+            }
+            save();
+        });
+    }
+
+    /**
+     * @return the store and export file
+     */
+    public File getExportFile() {
+        return file;
+    }
+
+    /**
+     * Writes one summary line per screen, for {@code dumpsys activity}.
+     *
+     * @param prefix line prefix given by dumpsys
+     * @param writer the dump output
+     */
+    public synchronized void dump(String prefix, PrintWriter writer) {
+        writer.print(prefix);
+        writer.println("Screen readiness (" + file + "):");
+        if (samples.isEmpty()) {
+            writer.print(prefix);
+            writer.println("  no screens recorded");
+            return;
+        }
+        for (Map.Entry<String, Deque<Sample>> entry : samples.entrySet()) {
+            List<Long> latencies = new ArrayList<>();
+            List<Long> sinceStart = new ArrayList<>();
+            for (Sample sample : entry.getValue()) {
+                latencies.add(sample.latencyMs);
+                if (sample.sinceProcessStartMs >= 0) {
+                    sinceStart.add(sample.sinceProcessStartMs);
+                }
+            }
+            writer.print(prefix);
+            writer.println(String.format(Locale.US, "  %s: %d samples, p50 %d ms, p90 %d ms, max %d ms%s",
+                    entry.getKey(), latencies.size(), percentile(latencies, 50), percentile(latencies, 90),
+                    percentile(latencies, 100), sinceStart.isEmpty() ? ""
+                            : String.format(Locale.US, ", from process start p50 %d ms (%d launches)",
+                            percentile(sinceStart, 50), sinceStart.size())));
+        }
+    }
+
+    // Adds a sample, dropping the oldest one past MAX_SAMPLES
+    private void add(String screen, Sample sample) {
+        Deque<Sample> screenSamples = samples.get(screen);
+        if (screenSamples == null) {
+            screenSamples = new ArrayDeque<>();
+            samples.put(screen, screenSamples);
+        }
+        screenSamples.addLast(sample);
+        while (screenSamples.size() > MAX_SAMPLES) {
+            screenSamples.removeFirst();
+        }
+    }
+
+    // Nearest-rank percentile of unsorted values
+    private static long percentile(List<Long> values, int percent) {
+        Long[] sorted = values.toArray(new Long[0]);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    // Reads the samples of earlier processes, on the io thread
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            JSONObject screens = new JSONObject(new String(Files.readAllBytes(file.toPath()),
+                    StandardCharsets.UTF_8)).getJSONObject("screens");
+            synchronized (this) {
+                for (Iterator<String> names = screens.keys(); names.hasNext(); ) {
+                    String screen = names.next();
+                    JSONArray array = screens.getJSONArray(screen);
+                    for (int i = 0; i < array.length(); i++) {
+                        JSONObject json = array.getJSONObject(i);
+                        add(screen, new Sample(json.getLong("recorded_at"), json.getLong("latency_ms"),
+                                json.optLong("since_process_start_ms", -1)));
+                    }
+                }
+            }
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Discarding unreadable screen metrics", e);
+        }
+    }
+
+    // Writes every sample to the file, on the io thread
+    private void save() {
+        try {
+            JSONObject screens = new JSONObject();
+            synchronized (this) {
+                for (Map.Entry<String, Deque<Sample>> entry : samples.entrySet()) {
+                    JSONArray array = new JSONArray();
+                    for (Sample sample : entry.getValue()) {
+                        array.put(new JSONObject()
+                                .put("recorded_at", sample.recordedAt)
+                                .put("latency_ms", sample.latencyMs)
+                                .put("since_process_start_ms", sample.sinceProcessStartMs));
+                    }
+                    screens.put(entry.getKey(), array);
+                }
+            }
+            byte[] json = new JSONObject().put("screens", screens).toString(2).getBytes(StandardCharsets.UTF_8);
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(json);
+            }
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Could not save screen metrics", e);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.sugarsteps;
+
+import android.app.Activity;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reports a screen as fully drawn once its data-bound content has actually appeared.
+ *
+ * The first frame of a screen often still shows an empty list or an unloaded recipe, so the
+ * platform's startup metrics alone stop too early. A screen names the pieces of content it waits
+ * for; once each one is marked ready, the tracker calls {@link Activity#reportFullyDrawn()} and
+ * records the latency in {@link ScreenMetrics}.
+ *
+ * Features:
+ * - Any number of named readiness conditions per screen, marked ready in any order.
+ * - Marking a condition again, or after the report, is harmless.
+ * - Reports once per screen instance, and not at all for a finishing screen.
+ * - For the first screen a launch opens, also records the time since process start.
+ *
+ * Must be used on the main thread.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+public final class ScreenReadinessTracker {
+
+    private static final String TAG = "ScreenReadiness";
+
+    // A screen created this long after process start was not opened by the launch that started it
+    private static final long LAUNCH_WINDOW_MS = 10_000;
+
+    // Whether a screen of this process was already reported
+    private static final AtomicBoolean firstScreenReported = new AtomicBoolean(false);
+
+    private final Activity activity;   // The tracked screen
+    private final String screen;       // Name the samples are recorded under
+    private final Set<String> pending; // Conditions not yet ready
+    private final long startUptime;    // SystemClock.uptimeMillis() when tracking started
+    private boolean reported = false;  // Whether the screen was reported fully drawn
+
+    private ScreenReadinessTracker(Activity activity, String screen, String... conditions) {
+        this.activity = activity;
+        this.screen = screen;
+        this.pending = new HashSet<>(Arrays.asList(conditions));
+        this.startUptime = SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Starts tracking a screen. Call at the start of its onCreate.
+     *
+     * @param activity   the screen
+     * @param screen     name the latency is recorded under
+     * @param conditions names of the content the screen waits for
+     * @return the tracker of the screen
+     */
+    public static ScreenReadinessTracker start(Activity activity, String screen, String... conditions) {
+        return new ScreenReadinessTracker(activity, screen, conditions);
+    }
+
+    /**
+     * Marks one piece of content as shown. Reports the screen once nothing is pending.
+     *
+     * @param condition one of the names given to {@link #start}
+     */
+    public void markReady(String condition) {
+        if (reported || !pending.remove(condition) || !pending.isEmpty()) {
+            return;
+        }
+        reported = true;
+        if (activity.isFinishing() || activity.isDestroyed()) {
+            return; // Left before its content appeared, not a real measurement
+        }
+        activity.reportFullyDrawn();
+
+        long now = SystemClock.uptimeMillis();
+        long latencyMs = now - startUptime;
+        long sinceProcessStartMs = -1;
+        if (!firstScreenReported.getAndSet(true)
+                && startUptime - Process.getStartUptimeMillis() < LAUNCH_WINDOW_MS) {
+            sinceProcessStartMs = now - Process.getStartUptimeMillis();
+        }
+        Log.i(TAG, screen + " fully drawn in " + latencyMs + " ms"
+                + (sinceProcessStartMs >= 0 ? ", " + sinceProcessStartMs + " ms since process start" : ""));
+        ScreenMetrics.getInstance(activity).record(screen, latencyMs, sinceProcessStartMs);
+    }
+}
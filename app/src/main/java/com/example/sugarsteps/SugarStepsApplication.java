@@ -0,0 +1,47 @@
+package com.example.sugarsteps;
+
+import android.app.Application;
+import android.util.Log;
+
+import androidx.core.content.res.ResourcesCompat;
+
+import com.example.sugarsteps.DB.DatabaseInitializer;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Application class of SugarSteps.
+ *
+ * Starts opening the database on a background thread as the process starts, before any
+ * Activity is created, so the first screen's ViewModels find it ready. The app font is loaded
+ * the same way, so the first layout finds its typeface cached.
+ *
+ * @author Sivan Lasri
+ * @version 2.0
+ */
+public class SugarStepsApplication extends Application {
+
+    private static final String TAG = "SugarStepsApplication";
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        DatabaseInitializer.start(this); // Opens and warms the database off the main thread
+
+        // Reads and caches the Inter family, the same cache the layouts' fontFamily uses
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "FontPreload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(() -> {
+            try {
+                ResourcesCompat.getFont(this, R.font.inter);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Could not preload the app font, layouts will load it", e);
+            }
+        });
+        executor.shutdown(); // The thread ends once the font is cached
+    }
+}
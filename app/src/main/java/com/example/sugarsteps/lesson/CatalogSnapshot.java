@@ -0,0 +1,117 @@
+package com.example.sugarsteps.lesson;
+
+import android.os.SystemClock;
+
+import com.example.sugarsteps.DB.SugarStepsDataBase;
+import com.example.sugarsteps.user.User;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-memory snapshot of what the lessons list shows first: the registered user and the first
+ * page of lessons of the user's level.
+ *
+ * It is loaded at process start by the database initializer, or by the splash screen when the
+ * process was already running, and taken once by LessonsListActivity, which binds it in onCreate
+ * so the first frame already shows the greeting, the user's level tab and its lessons. The
+ * observed queries take over right after and replace it with live data.
+ *
+ * Features:
+ * - Process-wide, holds at most one snapshot.
+ * - Loaded by one caller at a time: the splash waits for a load the initializer already started
+ *   instead of running the same queries again.
+ * - Taken at most once, and only by the user it was loaded for.
+ * - Expires {@link #MAX_AGE_MS} after it was loaded: an older snapshot, e.g. one prefetched when
+ *   the process was started for background work, is neither reused by the splash nor taken by
+ *   the lessons list, so it is never shown stale.
+ * - Remembers when it was loaded, for the expiry and the startup logs.
+ *
+ * @author Sivan Lasri
+ * @version 3.0
+ */
+public final class CatalogSnapshot {
+
+    /** How long a snapshot may wait for the lessons list, from splash to first frame with room to spare. */
+    public static final long MAX_AGE_MS = 10_000;
+
+    private static volatile CatalogSnapshot current; // Snapshot waiting for the lessons list, or null
+    private static final Object LOAD_LOCK = new Object(); // Serializes prefetch, take() never waits on it
+
+    private final long userId;                 // The user the snapshot was loaded for
+    private final User user;                   // The user's row
+    private final LessonLevel level;           // The user's level, the tab shown first
+    private final List<LessonSummary> lessons; // First page of the level's lessons
+    private final long loadedAt;               // SystemClock.elapsedRealtime() when loaded
+
+    private CatalogSnapshot(long userId, User user, LessonLevel level, List<LessonSummary> lessons) {
+        this.userId = userId;
+        this.user = user;
+        this.level = level;
+        this.lessons = Collections.unmodifiableList(lessons);
+        this.loadedAt = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Loads the user and the first lesson page of the user's level, and keeps them as the
+     * current snapshot. Does nothing if a fresh snapshot of this user is already waiting, and waits
+     * for a load still running on another thread. Must be called off the main thread.
+     *
+     * @param database the open database
+     * @param userId   the registered user's ID
+     */
+    public static void prefetch(SugarStepsDataBase database, long userId) {
+        synchronized (LOAD_LOCK) {
+            CatalogSnapshot waiting = current;
+            if (waiting != null && waiting.userId == userId && !waiting.isExpired()) {
+                return; // Already loaded at process start
+            }
+            User user = database.usersDao().getUserByIdSync(userId);
+            if (user == null) {
+                current = null; // Registration not finished, nothing to show yet
+                return;
+            }
+            LessonLevel level = user.getLevel() != null ? user.getLevel() : LessonLevel.BEGINNER;
+            List<LessonSummary> lessons = database.lessonsDao()
+                    .getFirstLessonsByLevel(level, userId, LessonsRepository.PAGE_SIZE);
+            current = new CatalogSnapshot(userId, user, level, lessons);
+        }
+    }
+
+    /**
+     * Returns the current snapshot and clears it, if it was loaded for the given user and has
+     * not expired.
+     *
+     * @param userId the user the lessons list is shown for
+     * @return the snapshot, or {@code null} if there is no fresh one for this user
+     */
+    public static synchronized CatalogSnapshot take(long userId) {
+        CatalogSnapshot snapshot = current;
+        current = null;
+        return snapshot != null && snapshot.userId == userId && !snapshot.isExpired() ? snapshot : null;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public LessonLevel getLevel() {
+        return level;
+    }
+
+    public List<LessonSummary> getLessons() {
+        return lessons;
+    }
+
+    /**
+     * @return how long ago the snapshot was loaded, in milliseconds
+     */
+    public long getAgeMs() {
+        return SystemClock.elapsedRealtime() - loadedAt;
+    }
+
+    // Whether the snapshot waited too long to still match the database
+    private boolean isExpired() {
+        return getAgeMs() > MAX_AGE_MS;
+    }
+}
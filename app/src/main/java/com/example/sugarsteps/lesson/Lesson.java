@@ -2,9 +2,12 @@ package com.example.sugarsteps.lesson;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Objects;
+
 /**
  * Lesson entity in the SugarSteps application. Annotated as a Room entity and corresponds to the
  * "Lesson" table in the underlying SQLite database.
@@ -12,13 +15,16 @@ import org.jetbrains.annotations.NotNull;
  * Features:
  * - Auto-generated primary key for unique identification of lessons.
  * - Stores lesson details like name, photo, guide, descriptions, level, and video URL.
- * - Tracks whether the user has completed (check) or liked the lesson.
+ * - Done and like flags are kept per user in {@link LessonProgress}, not on the lesson row.
+ * - Stores the level as a {@link LessonLevel} integer code, indexed so the lessons of a level are
+ *   read without a full table scan.
+ * - Value equality over all columns, so streams can skip re-emissions of an unchanged row.
  *
  * @author Sivan Lasri
- * @version 5.0
+ * @version 8.0
  */
 
-@Entity(tableName = "Lesson")
+@Entity(tableName = "Lesson", indices = {@Index(value = {"level"})})
 public class Lesson {
 
     /**
@@ -62,11 +68,11 @@ public class Lesson {
 
 
     /**
-     * Level of the lesson (e.g., "Beginner", "Intermediate", "Advanced").
+     * Level of the lesson, stored as its integer code.
      * Can be {@code null} if not specified.
      */
     @ColumnInfo(name = "level")
-    private String level;
+    private LessonLevel level;
 
     /**
      * URL or path to the lesson's video.
@@ -84,25 +90,8 @@ public class Lesson {
     @ColumnInfo(name = "long_description")
     private String longDescription;
 
-    /**
-     * Indicates whether the user has completed the lesson.
-     * Defaults to {@code false}.
-     */
-    @NotNull
-    @ColumnInfo(name = "done")
-    private boolean check;
-
-    /**
-     * Indicates whether the user has liked the lesson.
-     * Defaults to {@code false}.
-     */
-    @NotNull
-    @ColumnInfo(name = "like")
-    private boolean liked;
-
     /**
      * Creates a new Lesson with required fields.
-     * Fields {@code check} and {@code liked} default to {@code false}.
      *
      * @param lessonName       the lesson's name (cannot be {@code null})
      * @param lessonPhoto      the URL/path to the lesson's photo (cannot be {@code null})
@@ -112,7 +101,7 @@ public class Lesson {
      * @param lessonVideo      the URL/path to the lesson's video (cannot be {@code null})
      * @param longDescription  detailed description of the lesson (cannot be {@code null})
      */
-    public Lesson(@NotNull String lessonName, @NotNull String lessonPhoto, @NotNull String shortDescription, @NotNull String lessonGuide, String level, @NotNull String lessonVideo, @NotNull String longDescription) {
+    public Lesson(@NotNull String lessonName, @NotNull String lessonPhoto, @NotNull String shortDescription, @NotNull String lessonGuide, LessonLevel level, @NotNull String lessonVideo, @NotNull String longDescription) {
         this.lessonName = lessonName;
         this.lessonPhoto = lessonPhoto;
         this.shortDescription = shortDescription;
@@ -120,8 +109,6 @@ public class Lesson {
         this.level = level;
         this.lessonVideo = lessonVideo;
         this.longDescription = longDescription;
-        this.check = false;
-        this.liked = false;
     }
 
     /** @return the unique lesson ID */
@@ -179,12 +166,12 @@ public class Lesson {
     }
 
     /** @return the lesson's level, or {@code null} if not set */
-    public String getLevel() {
+    public LessonLevel getLevel() {
         return level;
     }
 
     /** @param level the lesson's level (optional) */
-    public void setLevel(String level) {
+    public void setLevel(LessonLevel level) {
         this.level = level;
     }
 
@@ -210,26 +197,32 @@ public class Lesson {
         this.longDescription = longDescription;
     }
 
-    /** @return {@code true} if the user has completed the lesson */
-    @NotNull
-    public boolean isCheck() {
-        return check;
-    }
-
-    /** @param check set {@code true} if the user has completed the lesson */
-    public void setCheck(boolean check) {
-        this.check = check;
-    }
-
-    /** @return {@code true} if the user has liked the lesson */
-    @NotNull
-    public boolean isLiked() {
-        return liked;
-    }
-
-    /** @param liked set {@code true} if the user has liked the lesson */
-    public void setLiked(boolean liked) {
-        this.liked = liked;
+    /**
+     * Two lessons are equal when every column holds the same value.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if {@code o} is a lesson with the same values
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Lesson lesson = (Lesson) o;
+        return lessonId == lesson.lessonId
+                && lessonName.equals(lesson.lessonName)
+                && lessonPhoto.equals(lesson.lessonPhoto)
+                && shortDescription.equals(lesson.shortDescription)
+                && lessonGuide.equals(lesson.lessonGuide)
+                && Objects.equals(level, lesson.level)
+                && lessonVideo.equals(lesson.lessonVideo)
+                && longDescription.equals(lesson.longDescription);
+    }
+
+    /** @return a hash code consistent with {@link #equals(Object)} */
+    @Override
+    public int hashCode() {
+        return Objects.hash(lessonId, lessonName, lessonPhoto, shortDescription, lessonGuide,
+                level, lessonVideo, longDescription);
     }
 
 }
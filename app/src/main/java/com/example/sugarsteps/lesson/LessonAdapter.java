@@ -19,22 +19,38 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 import androidx.core.content.ContextCompat;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.sugarsteps.R;
 
-import java.util.List;
+public class LessonAdapter extends PagingDataAdapter<LessonSummary, LessonAdapter.LessonViewHolder> {
 
-public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonViewHolder> {
-
-    private final List<Lesson> lessonList;  // List of lessons to display
     private final Context context;           // Context for inflating views and launching activities
     private OnItemLongClickListener longClickListener; // For clicking long on the lesson (for editing)
 
+    // Compares lesson summaries so only rows whose shown data changed are rebound
+    private static final DiffUtil.ItemCallback<LessonSummary> DIFF_CALLBACK = new DiffUtil.ItemCallback<LessonSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull LessonSummary oldItem, @NonNull LessonSummary newItem) {
+            return oldItem.getLessonId() == newItem.getLessonId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull LessonSummary oldItem, @NonNull LessonSummary newItem) {
+            return oldItem.getLessonName().equals(newItem.getLessonName())
+                    && oldItem.getShortDescription().equals(newItem.getShortDescription())
+                    && oldItem.getLessonPhoto().equals(newItem.getLessonPhoto())
+                    && oldItem.isLiked() == newItem.isLiked()
+                    && oldItem.isCheck() == newItem.isCheck();
+        }
+    };
+
     // Adapter constructor
-    public LessonAdapter(Context context, List<Lesson> lessonList) {
+    public LessonAdapter(Context context) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.lessonList = lessonList;
     }
 
     @NonNull
@@ -48,8 +64,12 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
     @SuppressLint("ClickableViewAccessibility") // Makes android ignore no adequate info for accessibility
     @Override
     public void onBindViewHolder(@NonNull LessonViewHolder holder, int position) {
-        // Get the current lesson
-        Lesson lesson = lessonList.get(position);
+        // Get the current lesson summary (null while its page is still loading)
+        LessonSummary lesson = getItem(position);
+        if (lesson == null) {
+            holder.bindPlaceholder();
+            return;
+        }
 
         // Bind lesson data to the views
         holder.lessonTitle.setText(lesson.getLessonName());
@@ -67,17 +87,18 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
 
         // Handle like button click to toggle heart icon
         holder.likeButton.setOnClickListener(v -> {
-            boolean liked = lesson.isLiked();
-            lesson.setLiked(!liked);
+            boolean liked = !(boolean) holder.likeButton.getTag();
+
+            // Show the new state right away, the list rebinds once the database emits it
+            holder.likeButton.setImageResource(liked ? R.drawable.ic_heart_full : R.drawable.ic_heart_border);
+            holder.likeButton.setTag(liked);
 
             // Get viewModel from context
             if (context instanceof AppCompatActivity) {
                 LessonsViewModel viewModel = new ViewModelProvider((AppCompatActivity) context)
                         .get(LessonsViewModel.class);
-                viewModel.update(lesson); // Update data base in live
+                viewModel.setLessonLiked(lesson.getLessonId(), liked); // Update the user's progress row in live
             }
-
-            notifyItemChanged(position); //  Refresh UI
         });
 
 
@@ -133,15 +154,9 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
 
     }
 
-    // Retrieve lesson by position (used for swipe-to-delete)
-    public Lesson getLessonAt(int position) {
-        return lessonList.get(position);
-    }
-
-    // Return total number of items
-    @Override
-    public int getItemCount() {
-        return lessonList.size();
+    // Retrieve lesson by position without triggering a page load (used for swipe-to-delete)
+    public LessonSummary getLessonAt(int position) {
+        return peek(position);
     }
 
     // Interface for long click behavior (used for edit)
@@ -176,5 +191,19 @@ public class LessonAdapter extends RecyclerView.Adapter<LessonAdapter.LessonView
             likeButton.setTag(false); // Default: not liked
         }
 
+        // Clears the row while its lesson is a placeholder that has not loaded yet
+        void bindPlaceholder() {
+            lessonTitle.setText("");
+            lessonDescription.setText("");
+            lessonImage.setImageDrawable(null);
+            likeButton.setImageResource(R.drawable.ic_heart_border);
+            likeButton.setTag(false);
+            likeButton.setOnClickListener(null);
+            lessonCheckBox.setChecked(false);
+            lessonCheckBox.setOnClickListener(null);
+            cardView.setOnClickListener(null);
+            cardView.setOnLongClickListener(null);
+        }
+
     }
 }
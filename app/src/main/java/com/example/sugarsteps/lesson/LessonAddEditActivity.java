@@ -33,6 +33,9 @@ import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Activity for adding and editing lessons in the SugarSteps application.
@@ -41,11 +44,12 @@ import java.io.OutputStream;
  * Features:
  * - Add/Edit lesson with name, description, video, image, and text file
  * - File validation and permission handling
+ * - Media copied under unique file names, so lessons never overwrite each other's files
  * - Media playback with proper resource management
  * - Background theme support from user preferences
  *
  * @author Sivan Lasri
- * @version 25.0
+ * @version 26.0
  */
 public class LessonAddEditActivity extends AppCompatActivity {
 
@@ -90,6 +94,7 @@ public class LessonAddEditActivity extends AppCompatActivity {
     private boolean isSaving = false;
     private boolean toastShown = false;
     private Lesson currentLesson = null;
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(); // Reads picked text files off the main thread
     private int selectedBackground = 1; // Default background ID
 
     // File management flags
@@ -537,12 +542,13 @@ public class LessonAddEditActivity extends AppCompatActivity {
      * Handle save operation for ADD mode - create new lesson.
      */
     private void saveAddMode() {
-        String lessonName = lessonNameEt.getText().toString();
+        // Unique file names: two lessons with the same name must not overwrite each other's files
+        String fileKey = UUID.randomUUID().toString();
 
         // Save all files to internal storage
-        String imagePath = saveFileToInternalStorage(selectedImageUri, "lesson_" + lessonName + "_image.jpg");
-        String txtPath = saveFileToInternalStorage(fileUri, "lesson_" + lessonName + "_description.txt");
-        String videoPath = saveFileToInternalStorage(videoUri, "lesson_" + lessonName + "_video.mp4");
+        String imagePath = saveFileToInternalStorage(selectedImageUri, "lesson_" + fileKey + "_image.jpg");
+        String txtPath = saveFileToInternalStorage(fileUri, "lesson_" + fileKey + "_description.txt");
+        String videoPath = saveFileToInternalStorage(videoUri, "lesson_" + fileKey + "_video.mp4");
 
         // Check if any file saving failed
         if (imagePath == null || videoPath == null || txtPath == null) {
@@ -571,7 +577,7 @@ public class LessonAddEditActivity extends AppCompatActivity {
                 imagePath,
                 shortDescEt.getText().toString(),
                 lessonGuideEt.getText().toString(),
-                levelSpn.getSelectedItem().toString(),
+                LessonLevel.fromPosition(levelSpn.getSelectedItemPosition()), // Spinner is in level order
                 videoPath,
                 txtPath
         );
@@ -622,32 +628,45 @@ public class LessonAddEditActivity extends AppCompatActivity {
     }
 
     /**
-     * Read text content from URI and display it in the text view.
+     * Read text content from URI off the main thread and display it in the text view.
      * @param uri URI of the text file to read
      */
     private void readTextFromUri(Uri uri) {
-        try (InputStream inputStream = getContentResolver().openInputStream(uri);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-
-            StringBuilder stringBuilder = new StringBuilder();
-            String line;
-            // Read file line by line
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line).append("\n");
+        // Read the file in the background, then show it on the main thread
+        ioExecutor.execute(() -> {
+            String content = null;
+            try (InputStream inputStream = getContentResolver().openInputStream(uri);
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+
+                StringBuilder stringBuilder = new StringBuilder();
+                String line;
+                // Read file line by line
+                while ((line = reader.readLine()) != null) {
+                    stringBuilder.append(line).append("\n");
+                }
+                content = stringBuilder.toString();
+            } catch (Exception e) {
+                // Reported below on the main thread
             }
 
-            String content = stringBuilder.toString();
-            lessonLongDescTx.setText(content);
+            String result = content;
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed()) return;
 
-            // Show text area if content exists
-            if (!content.trim().isEmpty()) {
-                findViewById(R.id.text_present).setVisibility(android.view.View.VISIBLE);
-            }
+                if (result == null) {
+                    Toast.makeText(this, "שגיאה בטעינת הקובץ", Toast.LENGTH_SHORT).show();
+                    findViewById(R.id.text_present).setVisibility(android.view.View.GONE);
+                    return;
+                }
 
-        } catch (Exception e) {
-            Toast.makeText(this, "שגיאה בטעינת הקובץ", Toast.LENGTH_SHORT).show();
-            findViewById(R.id.text_present).setVisibility(android.view.View.GONE);
-        }
+                lessonLongDescTx.setText(result);
+
+                // Show text area if content exists
+                if (!result.trim().isEmpty()) {
+                    findViewById(R.id.text_present).setVisibility(android.view.View.VISIBLE);
+                }
+            });
+        });
     }
 
     /**
@@ -790,36 +809,17 @@ public class LessonAddEditActivity extends AppCompatActivity {
     }
 
     /**
-     * Load lesson text content from original path or resource.
+     * Load lesson text content stored in the database for this lesson.
      */
     private void loadLessonText() {
-        if (originalTextPath != null && !originalTextPath.isEmpty()) {
-            try {
-                if (originalTextPath.startsWith("android.resource://")) {
-                    fileUri = Uri.parse(originalTextPath);
-                    readTextFromUri(fileUri);
-                } else {
-                    loadTextFromFile();
-                }
-            } catch (Exception e) {
+        lessonsViewModel.getRecipeText(lessonId).observe(this, recipeText -> {
+            if (recipeText == null || recipeText.trim().isEmpty()) {
                 handleTextLoadError();
+                return;
             }
-        }
-    }
-
-    /**
-     * Load text content from internal storage file.
-     */
-    private void loadTextFromFile() {
-        File textFile = new File(originalTextPath);
-        if (textFile.exists()) {
-            fileUri = Uri.fromFile(textFile);
-            readTextFromUri(fileUri);
+            lessonLongDescTx.setText(recipeText);
             findViewById(R.id.text_present).setVisibility(android.view.View.VISIBLE);
-        } else {
-            handleTextLoadError();
-            Toast.makeText(this, "קובץ התיאור הארוך לא נמצא", Toast.LENGTH_SHORT).show();
-        }
+        });
     }
 
     /**
@@ -836,12 +836,8 @@ public class LessonAddEditActivity extends AppCompatActivity {
      * @param lesson The lesson containing level information
      */
     private void setLevelSpinnerSelection(Lesson lesson) {
-        String[] levels = getResources().getStringArray(R.array.levels);
-        for (int i = 0; i < levels.length; i++) {
-            if (levels[i].equalsIgnoreCase(lesson.getLevel())) {
-                levelSpn.setSelection(i);
-                break;
-            }
+        if (lesson.getLevel() != null) {
+            levelSpn.setSelection(lesson.getLevel().getPosition()); // Spinner is in level order
         }
     }
 
@@ -999,7 +995,7 @@ public class LessonAddEditActivity extends AppCompatActivity {
         currentLesson.setLessonName(lessonNameEt.getText().toString());
         currentLesson.setShortDescription(shortDescEt.getText().toString());
         currentLesson.setLessonGuide(lessonGuideEt.getText().toString());
-        currentLesson.setLevel(levelSpn.getSelectedItem().toString());
+        currentLesson.setLevel(LessonLevel.fromPosition(levelSpn.getSelectedItemPosition()));
         currentLesson.setLessonPhoto(filePaths[0]); // imagePath
         currentLesson.setLongDescription(filePaths[1]); // txtPath
         currentLesson.setLessonVideo(filePaths[2]); // videoPath
@@ -1011,7 +1007,7 @@ public class LessonAddEditActivity extends AppCompatActivity {
     private void saveToDatabase() {
         new Handler(Looper.getMainLooper()).postDelayed(() -> {
             if (!toastShown && !isFinishing()) {
-                lessonsViewModel.update(currentLesson);
+                lessonsViewModel.updateWithRecipe(currentLesson); // Recipe may have changed, re-index it
                 toastShown = true;
                 Toast.makeText(this, "השיעור עודכן בהצלחה", Toast.LENGTH_SHORT).show();
                 finishSafely();
@@ -1291,6 +1287,9 @@ public class LessonAddEditActivity extends AppCompatActivity {
         // Clean up all media resources
         cleanupMediaResources();
 
+        // Stop reading picked files
+        ioExecutor.shutdown();
+
         super.onDestroy();
     }
 }
\ No newline at end of file
@@ -21,15 +21,15 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
 
 import com.example.sugarsteps.R;
-
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import com.example.sugarsteps.ScreenReadinessTracker;
 
 public class LessonDetailActivity extends AppCompatActivity {
 
+    // Content the screen waits for before it is reported fully drawn
+    private static final String READY_LESSON = "lesson"; // Name and guide of the lesson
+    private static final String READY_RECIPE = "recipe"; // Recipe text, or the no-description message
+    private static final String READY_VIDEO = "video";   // Video prepared, failed, or there is none
+
     private ImageButton backBtn; // Back button to lessonlist
     private CheckBox doneChkBox; // Lesson has done
     private ImageButton likeBtn; // Like button for later
@@ -38,11 +38,13 @@ public class LessonDetailActivity extends AppCompatActivity {
     private VideoView lessonVideo; // Lesson Video
     private TextView descriptionTv, markAsDoneTv; // Description text
     private boolean like = false; // Flag for like lesson
-    private ExecutorService executor = Executors.newSingleThreadExecutor(); // For background1 tasks
+    private LessonProgress loadedProgress; // User's progress as last read from the DB, to detect what changed
+    private boolean progressLoaded = false; // Whether the progress query has emitted yet
     private MediaController mediaController; // Adding to destroy it - so it won't leaked
     private boolean isActivityDestroyed = false; // Checking if Activity destroyed
     private View rootLayout;     // reference to root layout view to set background dynamically
     private int selectedBackground = 1; // default background ID
+    private ScreenReadinessTracker readiness; // Reports the screen fully drawn once lesson, recipe and video are shown
 
 
     @Override
@@ -55,6 +57,7 @@ public class LessonDetailActivity extends AppCompatActivity {
             handleLessonNotFound();
             return; // Stopping this activity
         }
+        readiness = ScreenReadinessTracker.start(this, "LessonDetail", READY_LESSON, READY_RECIPE, READY_VIDEO);
 
         initViews();                      // Initialize UI components by findViewById
         loadBackgroundFromPreferences(); // Load and apply background from saved preferences
@@ -185,20 +188,36 @@ public class LessonDetailActivity extends AppCompatActivity {
      */
     private void loadLessonData(int lessonId) {
         LessonsViewModel lessonsViewModel = new ViewModelProvider(this).get(LessonsViewModel.class);
+        loadLongDescription(lessonsViewModel, lessonId); // Load recipe text once, it is not part of the lesson row
         lessonsViewModel.getLessonById(lessonId).observe(this, lessons -> {
             if (lessons == null) return;
 
             nameLessonTv.setText(lessons.getLessonName());
             nameGuideTv.setText(lessons.getLessonGuide());
-            loadLongDescription(lessons.getLongDescription()); // Load description text asynchronously
-
-            updateMarkText(lessons.isCheck()); // Update done label text
-            doneChkBox.setChecked(lessons.isCheck()); // Set checkbox state
-            like = lessons.isLiked();           // Set like flag
-            likeBtn.setImageResource(like ? R.drawable.ic_heart_full : R.drawable.ic_heart_border); // Update icon
+            readiness.markReady(READY_LESSON);
 
             setupVideo(lessons.getLessonVideo()); // Setup video playback
         });
+        loadProgress(lessonsViewModel, lessonId); // Done and like flags belong to the current user
+    }
+
+    /**
+     * Load the current user's done and like flags of this lesson.
+     * No progress row means the lesson is neither done nor liked.
+     * @param lessonsViewModel ViewModel used to load the progress.
+     * @param lessonId ID of the lesson whose progress is loaded.
+     */
+    private void loadProgress(LessonsViewModel lessonsViewModel, int lessonId) {
+        lessonsViewModel.getLessonProgress(lessonId).observe(this, progress -> {
+            loadedProgress = progress; // Keep the DB state to compare against on exit
+            progressLoaded = true;
+
+            boolean done = progress != null && progress.isDone();
+            updateMarkText(done);      // Update done label text
+            doneChkBox.setChecked(done); // Set checkbox state
+            like = progress != null && progress.isLiked(); // Set like flag
+            likeBtn.setImageResource(like ? R.drawable.ic_heart_full : R.drawable.ic_heart_border); // Update icon
+        });
     }
 
     /**
@@ -208,100 +227,53 @@ public class LessonDetailActivity extends AppCompatActivity {
     private void setupBackButton(int lessonId) {
         backBtn.setOnClickListener(v -> {
             LessonsViewModel lessonsViewModel = new ViewModelProvider(this).get(LessonsViewModel.class);
-            lessonsViewModel.getLessonById(lessonId).observe(this, lessons -> {
-                boolean needsUpdate = false;
+            boolean needsUpdate = false;
+
+            if (progressLoaded) {
+                boolean wasLiked = loadedProgress != null && loadedProgress.isLiked();
+                boolean wasDone = loadedProgress != null && loadedProgress.isDone();
 
-                // Check if liked state changed
-                if (lessons.isLiked() != like) {
+                // Check if liked state changed - write only the user's like flag
+                if (wasLiked != like) {
                     needsUpdate = true;
-                    lessons.setLiked(like);
+                    lessonsViewModel.setLessonLiked(lessonId, like);
                 }
 
-                // Check if done state changed
-                if (doneChkBox.isChecked() != lessons.isCheck()) {
+                // Check if done state changed - write only the user's done flag
+                if (wasDone != doneChkBox.isChecked()) {
                     needsUpdate = true;
-                    lessons.setCheck(doneChkBox.isChecked());
+                    lessonsViewModel.setLessonDone(lessonId, doneChkBox.isChecked());
                 }
+            }
 
-                if (needsUpdate) {
-                    lessonsViewModel.update(lessons); // Save changes in ViewModel
-                    Intent resultIntent = new Intent();
-                    resultIntent.putExtra("updated", true); // Notify caller changes happened
-                    setResult(RESULT_OK, resultIntent);
-                } else {
-                    setResult(RESULT_CANCELED); // No changes made
-                }
-                finish(); // Close activity
-            });
+            if (needsUpdate) {
+                Intent resultIntent = new Intent();
+                resultIntent.putExtra("updated", true); // Notify caller changes happened
+                setResult(RESULT_OK, resultIntent);
+            } else {
+                setResult(RESULT_CANCELED); // No changes made
+            }
+            finish(); // Close activity
         });
     }
 
 
     /**
-     * Load long description from a file path or resource.
-     * @param descPath Path to the description file.
+     * Load the recipe text stored in the database for this lesson.
+     * A single indexed row fetch, decompressed off the main thread by the repository.
+     * @param lessonsViewModel ViewModel used to load the recipe.
+     * @param lessonId ID of the lesson whose recipe is loaded.
      */
-    private void loadLongDescription(String descPath) {
-        if (descPath == null || descPath.isEmpty()) {
-            descriptionTv.setText("אין תיאור זמין");
-            return;
-        }
+    private void loadLongDescription(LessonsViewModel lessonsViewModel, int lessonId) {
+        lessonsViewModel.getRecipeText(lessonId).observe(this, recipeText -> {
+            if (isActivityDestroyed) return;
 
-        // Async - do in background1
-        executor.execute(() -> {
-            try {
-                InputStream inputStream;
-
-                if (descPath.startsWith("android.resource://")) {
-                    // File from Resource
-                    Uri uri = Uri.parse(descPath);
-                    inputStream = getContentResolver().openInputStream(uri);
-                } else {
-                    // File from intenal Storage
-                    java.io.File file = new java.io.File(descPath);
-
-                    if (!file.exists()) {
-                        runOnUiThread(() -> {
-                            if (!isActivityDestroyed) {
-                                descriptionTv.setText("קובץ התיאור לא נמצא");
-                            }
-                        });
-                        return;
-                    }
-
-                    inputStream = new java.io.FileInputStream(file);
-                }
-
-                // Reading thr content
-                BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, "UTF-8"));
-                StringBuilder stringBuilder = new StringBuilder();
-                String line;
-
-                while ((line = reader.readLine()) != null) {
-                    stringBuilder.append(line).append("\n");
-                }
-
-                reader.close();
-                inputStream.close();
-
-                // Update UI with description text on main thread
-                if (!isActivityDestroyed) {
-                    runOnUiThread(() -> {
-                        if (!isActivityDestroyed) {
-                            descriptionTv.setText(stringBuilder.toString());
-                        }
-                    });
-                }
-
-            } catch (Exception e) {
-                if (!isActivityDestroyed) {
-                    runOnUiThread(() -> {
-                        if (!isActivityDestroyed) {
-                            descriptionTv.setText("שגיאה בטעינת התיאור");
-                        }
-                    });
-                }
+            if (recipeText == null || recipeText.isEmpty()) {
+                descriptionTv.setText("אין תיאור זמין");
+            } else {
+                descriptionTv.setText(recipeText);
             }
+            readiness.markReady(READY_RECIPE);
         });
     }
 
@@ -312,6 +284,7 @@ public class LessonDetailActivity extends AppCompatActivity {
      */
     private void setupVideo(String videoPath) {
         if (isActivityDestroyed || videoPath == null || videoPath.isEmpty()) {
+            readiness.markReady(READY_VIDEO); // No video to wait for
             return;
         }
 
@@ -327,6 +300,7 @@ public class LessonDetailActivity extends AppCompatActivity {
 
                 if (!videoFile.exists()) {
                     Toast.makeText(this, "קובץ הווידאו לא נמצא", Toast.LENGTH_SHORT).show();
+                    readiness.markReady(READY_VIDEO);
                     return;
                 }
 
@@ -335,11 +309,13 @@ public class LessonDetailActivity extends AppCompatActivity {
 
                 if (fileSize == 0) {
                     Toast.makeText(this, "קובץ הווידאו ריק", Toast.LENGTH_SHORT).show();
+                    readiness.markReady(READY_VIDEO);
                     return;
                 }
 
                 if (fileSize < 1000) { // Less than 1KB
                     Toast.makeText(this, "קובץ הווידאו קטן מדי או פגום", Toast.LENGTH_SHORT).show();
+                    readiness.markReady(READY_VIDEO);
                     return;
                 }
 
@@ -361,6 +337,7 @@ public class LessonDetailActivity extends AppCompatActivity {
             if (!isActivityDestroyed && !isFinishing() && !isDestroyed()) {
                 Toast.makeText(this, "שגיאה בטעינת הווידאו: " + e.getMessage(), Toast.LENGTH_LONG).show();
             }
+            readiness.markReady(READY_VIDEO);
         }
     }
 
@@ -406,12 +383,14 @@ public class LessonDetailActivity extends AppCompatActivity {
                                 }
                                 Toast.makeText(this, errorMsg, Toast.LENGTH_LONG).show();
                             }
+                            readiness.markReady(READY_VIDEO); // Failed, the error is what the screen shows
                             return true;
                         });
 
                         // Set up prepared listener
                         lessonVideo.setOnPreparedListener(mp -> {
                             if (!isActivityDestroyed && !isFinishing() && !isDestroyed()) {
+                                readiness.markReady(READY_VIDEO);
                                 try {
                                     mp.setLooping(true);
                                     lessonVideo.start();
@@ -428,6 +407,7 @@ public class LessonDetailActivity extends AppCompatActivity {
                         if (!isActivityDestroyed && !isFinishing() && !isDestroyed()) {
                             Toast.makeText(this, "שגיאה בהגדרת נגן הווידאו: " + e.getMessage(), Toast.LENGTH_LONG).show();
                         }
+                        readiness.markReady(READY_VIDEO);
                     }
                 }
             }, 200);
@@ -437,6 +417,7 @@ public class LessonDetailActivity extends AppCompatActivity {
             if (!isActivityDestroyed && !isFinishing() && !isDestroyed()) {
                 Toast.makeText(this, "שגיאה כללית בנגן הווידאו: " + e.getMessage(), Toast.LENGTH_LONG).show();
             }
+            readiness.markReady(READY_VIDEO);
         }
     }
 
@@ -499,11 +480,6 @@ public class LessonDetailActivity extends AppCompatActivity {
         // Clean up video resources
         cleanupVideo();
 
-        // Clean up executor
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
-        }
-
         super.onDestroy();
     }
 
@@ -0,0 +1,96 @@
+package com.example.sugarsteps.lesson;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+import androidx.room.PrimaryKey;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Full-text search entry of a {@link Lesson}. Annotated as a Room FTS4 entity and corresponds to the
+ * "LessonFts" virtual table in the underlying SQLite database.
+ *
+ * Features:
+ * - Uses the lesson ID as its rowid, so search hits join straight back to the Lesson table.
+ * - Mirrors the lesson name and short description, plus the recipe text read from the
+ *   lesson's long description file.
+ * - Tokenized with unicode61, so Hebrew text is split into words correctly.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+
+@Fts4(tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "LessonFts")
+public class LessonFts {
+
+    /**
+     * Rowid of the entry, equal to the {@link Lesson#lessonId} it mirrors.
+     */
+    @PrimaryKey
+    @ColumnInfo(name = "rowid")
+    public int rowid;
+
+    /**
+     * The display name of the lesson.
+     * Cannot be {@code null}.
+     */
+    @NotNull
+    @ColumnInfo(name = "lesson_name")
+    private String lessonName;
+
+    /**
+     * Short description of the lesson.
+     * Cannot be {@code null}.
+     */
+    @NotNull
+    @ColumnInfo(name = "short_description")
+    private String shortDescription;
+
+    /**
+     * Full recipe text of the lesson.
+     * Cannot be {@code null}, empty if the recipe could not be read.
+     */
+    @NotNull
+    @ColumnInfo(name = "recipe_text")
+    private String recipeText;
+
+    /**
+     * Creates a new search entry for a lesson.
+     *
+     * @param rowid            the ID of the lesson this entry mirrors
+     * @param lessonName       the lesson's name (cannot be {@code null})
+     * @param shortDescription short description of the lesson (cannot be {@code null})
+     * @param recipeText       the lesson's recipe text (cannot be {@code null})
+     */
+    public LessonFts(int rowid, @NotNull String lessonName, @NotNull String shortDescription, @NotNull String recipeText) {
+        this.rowid = rowid;
+        this.lessonName = lessonName;
+        this.shortDescription = shortDescription;
+        this.recipeText = recipeText;
+    }
+
+    /** @return the ID of the lesson this entry mirrors */
+    public int getRowid() {
+        return rowid;
+    }
+
+    /** @return the lesson's name (never {@code null}) */
+    @NotNull
+    public String getLessonName() {
+        return lessonName;
+    }
+
+    /** @return the lesson's short description (never {@code null}) */
+    @NotNull
+    public String getShortDescription() {
+        return shortDescription;
+    }
+
+    /** @return the lesson's recipe text (never {@code null}) */
+    @NotNull
+    public String getRecipeText() {
+        return recipeText;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.sugarsteps.lesson;
+
+import androidx.annotation.StringRes;
+
+import com.example.sugarsteps.R;
+
+/**
+ * Difficulty level of a lesson, and the level a user studies at.
+ *
+ * Levels are stored in the database as a small integer code (see
+ * {@link com.example.sugarsteps.DB.Converters}) and compared as enum constants in code.
+ * The Hebrew display names live in string resources and are only looked up at the UI edge.
+ *
+ * Features:
+ * - Stable integer code per level, independent of the declaration order and of the locale.
+ * - Display name resource of each level, matching the tab titles and the levels spinner.
+ * - Lookup by code and by position in the tabs and spinners.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+public enum LessonLevel {
+
+    BEGINNER(0, R.string.beginner),
+    ADVANCED(1, R.string.advanced),
+    EXPERT(2, R.string.expert);
+
+    /** Integer stored in the level columns. Never reuse or renumber a code. */
+    private final int code;
+
+    /** String resource shown for the level. */
+    @StringRes
+    private final int displayName;
+
+    LessonLevel(int code, @StringRes int displayName) {
+        this.code = code;
+        this.displayName = displayName;
+    }
+
+    /** @return the integer stored in the database for this level */
+    public int getCode() {
+        return code;
+    }
+
+    /** @return the string resource of the level's display name */
+    @StringRes
+    public int getDisplayName() {
+        return displayName;
+    }
+
+    /** @return the position of the level in the level tabs and the R.array.levels spinner */
+    public int getPosition() {
+        return ordinal();
+    }
+
+    /**
+     * Finds the level stored under a code.
+     *
+     * @param code the stored integer
+     * @return the level, or {@code null} if no level has this code
+     */
+    public static LessonLevel fromCode(int code) {
+        for (LessonLevel level : values()) {
+            if (level.code == code) {
+                return level;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the level shown at a position of the level tabs or the R.array.levels spinner.
+     *
+     * @param position the tab or spinner position
+     * @return the level, or {@link #BEGINNER} if the position is out of range
+     */
+    public static LessonLevel fromPosition(int position) {
+        LessonLevel[] levels = values();
+        return position >= 0 && position < levels.length ? levels[position] : BEGINNER;
+    }
+}
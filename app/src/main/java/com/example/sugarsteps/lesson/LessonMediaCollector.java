@@ -0,0 +1,184 @@
+package com.example.sugarsteps.lesson;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Deletes lesson media files that no lesson references any more.
+ *
+ * LessonAddEditActivity copies the picked image, video and recipe file of a lesson into
+ * internal storage as "lesson_*" files. Deleting a lesson, replacing a file while editing,
+ * or (before add-mode names were made unique) adding two lessons with the same name leaves
+ * files behind that nothing points to. Videos make these orphans large.
+ *
+ * Features:
+ * - Releases the files of a deleted or edited lesson right away, if no other lesson uses them.
+ * - Full reconcile of the "lesson_*" files on disk against every media path stored in Lesson.
+ * - Files younger than a grace period are never deleted, so a lesson being saved keeps the
+ *   files it copied before its row is written.
+ * - Deletes in batches and can be stopped between batches; reports the files and bytes reclaimed.
+ * - Only ever touches "lesson_*" files directly in the app's files directory.
+ *
+ * Must be called off the main thread.
+ *
+ * @author Sivan Lasri
+ * @version 2.0
+ */
+public class LessonMediaCollector {
+
+    private static final String TAG = "LessonMediaCollector";
+
+    /** Prefix of every media file copied by LessonAddEditActivity. */
+    static final String MEDIA_PREFIX = "lesson_";
+
+    private static final String FILE_SCHEME = "file://"; // Paths kept as file URIs by the edit screen
+
+    /** Files modified more recently than this are kept by a full reconcile. */
+    public static final long DEFAULT_GRACE_PERIOD_MS = 60 * 60 * 1000L;
+
+    private static final int DELETE_BATCH = 25; // Files deleted between two stop checks
+
+    /**
+     * Result of a collection.
+     */
+    public static final class Report {
+        public final int filesDeleted;   // Orphaned files removed
+        public final long bytesReclaimed; // Their total size
+        public final int filesKept;      // Media files still referenced or too recent
+
+        Report(int filesDeleted, long bytesReclaimed, int filesKept) {
+            this.filesDeleted = filesDeleted;
+            this.bytesReclaimed = bytesReclaimed;
+            this.filesKept = filesKept;
+        }
+    }
+
+    private final File filesDir;      // Directory the media files are copied into
+    private final LessonsDao lessonsDao;
+
+    /**
+     * @param context    any context
+     * @param lessonsDao the lessons DAO, used to read the referenced paths
+     */
+    public LessonMediaCollector(Context context, LessonsDao lessonsDao) {
+        this(context.getApplicationContext().getFilesDir(), lessonsDao);
+    }
+
+    /**
+     * @param filesDir   the directory the media files are copied into
+     * @param lessonsDao the lessons DAO, used to read the referenced paths
+     */
+    @VisibleForTesting
+    LessonMediaCollector(File filesDir, LessonsDao lessonsDao) {
+        this.filesDir = filesDir;
+        this.lessonsDao = lessonsDao;
+    }
+
+    /**
+     * Deletes the given media files of a deleted or edited lesson that no lesson references.
+     * Paths that are not lesson media files (bundled resources, content URIs) are ignored.
+     *
+     * @param paths the stored media paths of the lesson before the change
+     * @return the files and bytes reclaimed
+     */
+    public Report release(String... paths) {
+        int deleted = 0;
+        long bytes = 0;
+        int kept = 0;
+        for (String path : paths) {
+            File file = toMediaFile(path);
+            if (file == null || !file.exists()) {
+                continue;
+            }
+            if (lessonsDao.isMediaReferenced(path)) {
+                kept++; // Unchanged by the edit, or shared with another lesson
+                continue;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                deleted++;
+                bytes += length;
+            }
+        }
+        return new Report(deleted, bytes, kept);
+    }
+
+    /**
+     * Deletes every "lesson_*" file that no lesson references and that is older than the grace period.
+     *
+     * @param gracePeriodMs files modified less than this long ago are kept
+     * @param stopped      checked between batches; collection stops once it returns {@code true}
+     * @return the files and bytes reclaimed
+     */
+    public Report collect(long gracePeriodMs, BooleanSupplier stopped) {
+        File[] files = filesDir.listFiles((dir, name) -> name.startsWith(MEDIA_PREFIX));
+        if (files == null || files.length == 0) {
+            return new Report(0, 0, 0);
+        }
+
+        Set<String> referenced = new HashSet<>();
+        for (String path : lessonsDao.getReferencedMediaPaths()) {
+            File file = toMediaFile(path);
+            if (file != null) {
+                referenced.add(file.getAbsolutePath());
+            }
+        }
+
+        long cutoff = System.currentTimeMillis() - gracePeriodMs;
+        List<File> orphans = new ArrayList<>();
+        for (File file : files) {
+            if (file.isFile() && !referenced.contains(file.getAbsolutePath()) && file.lastModified() < cutoff) {
+                orphans.add(file);
+            }
+        }
+
+        int deleted = 0;
+        long bytes = 0;
+        for (int i = 0; i < orphans.size(); i++) {
+            if (i % DELETE_BATCH == 0 && stopped.getAsBoolean()) {
+                break;
+            }
+            File file = orphans.get(i);
+            long length = file.length();
+            if (file.delete()) {
+                deleted++;
+                bytes += length;
+            }
+        }
+        Log.i(TAG, "Deleted " + deleted + " orphaned media files, " + bytes + " bytes");
+        return new Report(deleted, bytes, files.length - deleted);
+    }
+
+    // Resolves a stored path or file URI to a lesson media file, or null for anything else
+    private File toMediaFile(String stored) {
+        if (stored == null || stored.isEmpty()) {
+            return null;
+        }
+        String path = stored.startsWith(FILE_SCHEME) ? filePath(stored) : stored;
+        if (path == null || !path.startsWith("/")) {
+            return null; // android.resource:// and content:// URIs are not ours to delete
+        }
+        File file = new File(path);
+        return filesDir.equals(file.getParentFile()) && file.getName().startsWith(MEDIA_PREFIX) ? file : null;
+    }
+
+    // Decoded path of a file URI, like Uri.getPath(); the rest of the string if it is not a valid URI
+    private static String filePath(String uri) {
+        try {
+            return new URI(uri).getPath();
+        } catch (URISyntaxException e) {
+            return uri.substring(FILE_SCHEME.length());
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.sugarsteps.lesson;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+
+import com.example.sugarsteps.user.User;
+
+import java.util.Objects;
+
+/**
+ * Progress of a single user on a single lesson. Annotated as a Room entity and corresponds to the
+ * "LessonProgress" table in the underlying SQLite database.
+ *
+ * Every profile on the device keeps its own done and like flags, and toggling them writes
+ * this small row instead of the lesson row, so only observers of this table are invalidated.
+ * A missing row means the lesson is neither done nor liked by the user.
+ *
+ * Features:
+ * - Composite primary key (userId, lessonId), which also serves every per-user lookup and scan.
+ * - Index on lessonId, used by the join to the lessons and by the cascade when a lesson is deleted.
+ * - Rows are deleted together with their user or lesson by foreign key cascades.
+ * - Value equality over all columns, so streams can skip re-emissions of an unchanged row.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+
+@Entity(tableName = "LessonProgress",
+        primaryKeys = {"userId", "lessonId"},
+        foreignKeys = {
+                @ForeignKey(entity = User.class, parentColumns = "userId", childColumns = "userId",
+                        onDelete = ForeignKey.CASCADE),
+                @ForeignKey(entity = Lesson.class, parentColumns = "lessonId", childColumns = "lessonId",
+                        onDelete = ForeignKey.CASCADE)
+        },
+        indices = {@Index(value = {"lessonId"})})
+public class LessonProgress {
+
+    /** ID of the user the progress belongs to. */
+    @ColumnInfo(name = "userId")
+    private int userId;
+
+    /** ID of the lesson the progress belongs to. */
+    @ColumnInfo(name = "lessonId")
+    private int lessonId;
+
+    /** Whether the user has completed the lesson. */
+    @ColumnInfo(name = "done", defaultValue = "0")
+    private boolean done;
+
+    /** Whether the user has liked the lesson. */
+    @ColumnInfo(name = "like", defaultValue = "0")
+    private boolean liked;
+
+    /**
+     * Creates the progress of a user on a lesson. Called by Room when reading the table.
+     *
+     * @param userId   the user's ID
+     * @param lessonId the lesson's ID
+     * @param done     whether the lesson is done
+     * @param liked    whether the lesson is liked
+     */
+    public LessonProgress(int userId, int lessonId, boolean done, boolean liked) {
+        this.userId = userId;
+        this.lessonId = lessonId;
+        this.done = done;
+        this.liked = liked;
+    }
+
+    /** @return the user's ID */
+    public int getUserId() {
+        return userId;
+    }
+
+    /** @return the lesson's ID */
+    public int getLessonId() {
+        return lessonId;
+    }
+
+    /** @return {@code true} if the user has completed the lesson */
+    public boolean isDone() {
+        return done;
+    }
+
+    /** @return {@code true} if the user has liked the lesson */
+    public boolean isLiked() {
+        return liked;
+    }
+
+    /**
+     * Two progress rows are equal when every column holds the same value.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if {@code o} is a progress row with the same values
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LessonProgress progress = (LessonProgress) o;
+        return userId == progress.userId
+                && lessonId == progress.lessonId
+                && done == progress.done
+                && liked == progress.liked;
+    }
+
+    /** @return a hash code consistent with {@link #equals(Object)} */
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, lessonId, done, liked);
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.sugarsteps.lesson;
+
+import android.content.Context;
+import android.net.Uri;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the {@link LessonFts} search table in sync with the Lesson table and ranks search hits.
+ *
+ * A new or edited recipe arrives as a file referenced by {@link Lesson#getLongDescription()}, so it is
+ * read here, outside of any database transaction, before the lesson, its {@link RecipeContent}
+ * and its entry are written.
+ *
+ * Features:
+ * - Index, re-index and remove single lessons.
+ * - Turn free user input into a safe FTS4 prefix query.
+ * - Rank hits from their FTS4 matchinfo, and pick the best ones before they are loaded.
+ *
+ * @author Sivan Lasri
+ * @version 3.0
+ */
+public class LessonSearchIndex {
+
+    /** Relative weight of each indexed column: name, short description, recipe text. */
+    private static final double[] COLUMN_WEIGHTS = {3.0, 2.0, 1.0};
+
+    /** Most search results loaded and shown for one query. */
+    public static final int MAX_RESULTS = 50;
+
+    private final Context context; // Context used to open recipe resources
+
+    /**
+     * Creates the search index helper.
+     *
+     * @param context any context, the application context is kept
+     */
+    public LessonSearchIndex(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    /**
+     * Reads the recipe text of a lesson. Must be called off the main thread.
+     *
+     * @param lesson the lesson whose recipe should be read
+     * @return the recipe text, or an empty string if it could not be read
+     */
+    public String readRecipeText(Lesson lesson) {
+        return readRecipeText(context, lesson.getLongDescription());
+    }
+
+    /**
+     * Builds the search entry of a lesson that already has its ID.
+     *
+     * @param lesson     the lesson to mirror
+     * @param recipeText the lesson's recipe text
+     * @return the search entry for the lesson
+     */
+    public static LessonFts toSearchEntry(Lesson lesson, String recipeText) {
+        return new LessonFts(lesson.getLessonId(), lesson.getLessonName(), lesson.getShortDescription(), recipeText);
+    }
+
+    /**
+     * Turns free user input into an FTS4 MATCH expression.
+     * Every word becomes a quoted prefix term, so operators typed by the user are never parsed.
+     *
+     * @param query the text typed by the user
+     * @return the MATCH expression, or an empty string if the input has no words
+     */
+    public static String toMatchQuery(String query) {
+        StringBuilder match = new StringBuilder();
+        if (query == null) return "";
+
+        for (String term : query.split("[^\\p{L}\\p{M}\\p{N}]+")) {
+            if (term.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append('"').append(term).append("*\"");
+        }
+        return match.toString();
+    }
+
+    /**
+     * Ranks every hit from its matchinfo and keeps the best ones, without sorting all of them.
+     *
+     * @param matches the ranking data of every hit
+     * @param limit   the maximum number of hits to keep
+     * @return the lesson IDs of the best hits, best match first
+     */
+    public static List<Long> topMatches(List<LessonSearchMatch> matches, int limit) {
+        if (limit <= 0) return new ArrayList<>();
+
+        // Min-heap of the best hits so far, the worst of them on top
+        PriorityQueue<RankedMatch> best = new PriorityQueue<>(Math.min(limit, Math.max(1, matches.size())),
+                (a, b) -> compareRanked(b.rank, b.lessonId, a.rank, a.lessonId));
+        for (LessonSearchMatch match : matches) {
+            RankedMatch ranked = new RankedMatch(match.lessonId, computeRank(match.matchInfo));
+            if (best.size() < limit) {
+                best.add(ranked);
+            } else if (compareRanked(ranked.rank, ranked.lessonId, best.peek().rank, best.peek().lessonId) < 0) {
+                best.poll();
+                best.add(ranked);
+            }
+        }
+
+        List<RankedMatch> sorted = new ArrayList<>(best);
+        Collections.sort(sorted, (a, b) -> compareRanked(a.rank, a.lessonId, b.rank, b.lessonId));
+        List<Long> lessonIds = new ArrayList<>(sorted.size());
+        for (RankedMatch ranked : sorted) {
+            lessonIds.add(ranked.lessonId);
+        }
+        return lessonIds;
+    }
+
+    /**
+     * Computes the rank of every hit and sorts the list, best match first.
+     *
+     * @param results the search hits to rank, sorted in place
+     */
+    public static void rank(List<LessonSearchResult> results) {
+        for (LessonSearchResult result : results) {
+            result.rank = computeRank(result.matchInfo);
+        }
+        Collections.sort(results, (a, b) -> compareRanked(a.rank, a.lesson.getLessonId(), b.rank, b.lesson.getLessonId()));
+    }
+
+    // Best match first; equal ranks keep the catalog order, so both passes agree on the order
+    private static int compareRanked(double rankA, long idA, double rankB, long idB) {
+        int byRank = Double.compare(rankB, rankA);
+        return byRank != 0 ? byRank : Long.compare(idA, idB);
+    }
+
+    /**
+     * Computes a weighted term-frequency rank from an FTS4 {@code matchinfo(..., 'pcx')} blob.
+     * For every phrase and column the blob holds: hits in this row, hits in all rows
+     * and rows with hits. Rare terms found in heavy columns rank highest.
+     *
+     * @param matchInfo the raw matchinfo blob
+     * @return the rank, or 0 if the blob is missing
+     */
+    static double computeRank(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 8) return 0;
+
+        ByteBuffer buffer = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = buffer.getInt(0);
+        int columns = buffer.getInt(4);
+        double rank = 0;
+
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int base = 4 * (2 + 3 * (phrase * columns + column));
+                int hitsInRow = buffer.getInt(base);
+                int hitsInAllRows = buffer.getInt(base + 4);
+                if (hitsInRow > 0 && hitsInAllRows > 0) {
+                    double weight = column < COLUMN_WEIGHTS.length ? COLUMN_WEIGHTS[column] : 1.0;
+                    rank += weight * hitsInRow / hitsInAllRows;
+                }
+            }
+        }
+        return rank;
+    }
+
+    // Lesson ID of a hit with its computed rank
+    private static final class RankedMatch {
+        final long lessonId;
+        final double rank;
+
+        RankedMatch(long lessonId, double rank) {
+            this.lessonId = lessonId;
+            this.rank = rank;
+        }
+    }
+
+    /**
+     * Reads a recipe text from a resource URI or an internal storage path.
+     *
+     * @param context  context used to open resource URIs
+     * @param descPath the lesson's long description path
+     * @return the text, or an empty string if it could not be read
+     */
+    public static String readRecipeText(Context context, String descPath) {
+        if (descPath == null || descPath.isEmpty()) return "";
+
+        try (InputStream inputStream = descPath.startsWith("android.resource://")
+                ? context.getContentResolver().openInputStream(Uri.parse(descPath))
+                : new FileInputStream(new File(descPath))) {
+            if (inputStream == null) return "";
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = inputStream.read(buffer)) > 0) {
+                outputStream.write(buffer, 0, length);
+            }
+            return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.sugarsteps.lesson;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * The ranking data of a single lesson full-text search hit: its lesson ID and FTS4 matchinfo.
+ *
+ * Every hit of a query is read in this small form and ranked, and only the best ones are then
+ * loaded as a full {@link LessonSearchResult}, so a common term on a large catalog never
+ * materializes a lesson row or a snippet per hit.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+public class LessonSearchMatch {
+
+    /** ID of the matching lesson, the rowid of its search entry. */
+    @ColumnInfo(name = "lessonId")
+    public final long lessonId;
+
+    /** Raw FTS4 {@code matchinfo(..., 'pcx')} blob of the hit. */
+    @ColumnInfo(name = "match_info")
+    public final byte[] matchInfo;
+
+    /**
+     * Creates a hit. Called by Room when reading the search query.
+     *
+     * @param lessonId  the matching lesson's ID
+     * @param matchInfo the raw matchinfo blob
+     */
+    public LessonSearchMatch(long lessonId, byte[] matchInfo) {
+        this.lessonId = lessonId;
+        this.matchInfo = matchInfo;
+    }
+}
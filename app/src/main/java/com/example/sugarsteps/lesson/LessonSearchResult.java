@@ -0,0 +1,60 @@
+package com.example.sugarsteps.lesson;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Embedded;
+import androidx.room.Ignore;
+
+/**
+ * A single hit of the lesson full-text search.
+ *
+ * Holds the matching {@link Lesson} together with the highlight data returned by
+ * SQLite's FTS4 auxiliary functions, and the rank computed from them.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+public class LessonSearchResult {
+
+    /** The lesson that matched the search. */
+    @Embedded
+    public Lesson lesson;
+
+    /** Text fragment around the match, with the matched terms wrapped in {@code <b>} tags. */
+    @ColumnInfo(name = "snippet")
+    public String snippet;
+
+    /**
+     * Raw FTS4 {@code offsets()} value: groups of four integers
+     * (column, term, byte offset, byte size) for every matched term.
+     */
+    @ColumnInfo(name = "match_offsets")
+    public String matchOffsets;
+
+    /** Raw FTS4 {@code matchinfo(..., 'pcx')} blob, used to rank the hit. */
+    @ColumnInfo(name = "match_info")
+    public byte[] matchInfo;
+
+    /** Relevance of the hit, higher is better. Computed after the query runs. */
+    @Ignore
+    public double rank;
+
+    /** @return the lesson that matched the search */
+    public Lesson getLesson() {
+        return lesson;
+    }
+
+    /** @return the text fragment around the match, with {@code <b>} highlight tags */
+    public String getSnippet() {
+        return snippet;
+    }
+
+    /** @return the raw FTS4 offsets of every matched term */
+    public String getMatchOffsets() {
+        return matchOffsets;
+    }
+
+    /** @return the relevance of the hit, higher is better */
+    public double getRank() {
+        return rank;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.sugarsteps.lesson;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Slim, read-only projection of a {@link Lesson} holding only the columns shown in the lesson list.
+ *
+ * Features:
+ * - Skips the guide, level, video and long description columns, so list queries
+ *   fill smaller cursor windows and allocate less per row.
+ * - Carries the lesson ID, so the full lesson can be loaded by the detail query when needed.
+ * - The done and like flags are those of the user the list is shown for, see {@link LessonProgress}.
+ *
+ * @author Sivan Lasri
+ * @version 2.0
+ */
+public class LessonSummary {
+
+    /** Unique identifier of the lesson. */
+    @ColumnInfo(name = "lessonId")
+    public final int lessonId;
+
+    /** The display name of the lesson. */
+    @ColumnInfo(name = "lesson_name")
+    public final String lessonName;
+
+    /** Short description of the lesson. */
+    @ColumnInfo(name = "short_description")
+    public final String shortDescription;
+
+    /** URL or path to the lesson's photo. */
+    @ColumnInfo(name = "lesson_photo")
+    public final String lessonPhoto;
+
+    /** Whether the user has liked the lesson. */
+    @ColumnInfo(name = "like")
+    public final boolean liked;
+
+    /** Whether the user has completed the lesson. */
+    @ColumnInfo(name = "done")
+    public final boolean check;
+
+    /**
+     * Creates a lesson summary. Called by Room when reading list queries.
+     *
+     * @param lessonId         the lesson's ID
+     * @param lessonName       the lesson's name
+     * @param shortDescription short description of the lesson
+     * @param lessonPhoto      the URL/path to the lesson's photo
+     * @param liked            whether the lesson is liked
+     * @param check            whether the lesson is done
+     */
+    public LessonSummary(int lessonId, String lessonName, String shortDescription, String lessonPhoto, boolean liked, boolean check) {
+        this.lessonId = lessonId;
+        this.lessonName = lessonName;
+        this.shortDescription = shortDescription;
+        this.lessonPhoto = lessonPhoto;
+        this.liked = liked;
+        this.check = check;
+    }
+
+    /** @return the lesson's ID */
+    public int getLessonId() {
+        return lessonId;
+    }
+
+    /** @return the lesson's name */
+    public String getLessonName() {
+        return lessonName;
+    }
+
+    /** @return the lesson's short description */
+    public String getShortDescription() {
+        return shortDescription;
+    }
+
+    /** @return the URL/path to the lesson's photo */
+    public String getLessonPhoto() {
+        return lessonPhoto;
+    }
+
+    /** @return whether the lesson is liked */
+    public boolean isLiked() {
+        return liked;
+    }
+
+    /** @return whether the lesson is done */
+    public boolean isCheck() {
+        return check;
+    }
+}
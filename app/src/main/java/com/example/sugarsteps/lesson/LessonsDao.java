@@ -1,12 +1,16 @@
 package com.example.sugarsteps.lesson;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -21,14 +25,24 @@ import java.util.List;
  *
  * Features:
  * - Insert a new lesson and retrieve its generated ID.
+ * - Bulk insert lessons (used to seed the catalog).
  * - Update existing lesson records.
+ * - Set the per-user like or done flag of a lesson with a small progress-row write, or bulk insert progress rows.
  * - Delete a specific lesson.
- * - Retrieve all lessons (as observable LiveData).
- * - Retrieve a single lesson by its ID (as observable LiveData).
+ * - Retrieve a slim summary of all lessons joined with a user's progress (as observable LiveData).
+ * - Retrieve the summaries of a level page by page, joined with a user's progress (as a PagingSource),
+ *   or only its first page synchronously.
+ * - Retrieve a user's progress on a single lesson.
+ * - Retrieve a single full lesson by its ID (as observable LiveData), the detail query.
+ * - Keep the {@link LessonFts} full-text index in sync with every write.
+ * - Store and load the compressed recipe text of a lesson by its ID.
+ * - Full-text search over names, descriptions and recipe text, loading only the best ranked hits.
+ * - Retrieve a user's progress counters of every level.
+ * - Retrieve the media paths the lessons reference, for the orphaned media collector.
  *
  *
  * @author Sivan Lasri
- * @version 5.0
+ * @version 19.0
  */
 @Dao
 public interface LessonsDao {
@@ -42,6 +56,15 @@ public interface LessonsDao {
     @Insert
     long insertLesson(Lesson lesson);
 
+    /**
+     * Inserts many lessons into the database in one statement batch.
+     *
+     * @param lessons the lessons to insert
+     * @return the generated IDs, in the order of the list
+     */
+    @Insert
+    long[] insertAll(List<Lesson> lessons);
+
     /**
      * Updates an existing lesson in the database.
      *
@@ -50,6 +73,82 @@ public interface LessonsDao {
     @Update
     void updateLesson(Lesson lesson);
 
+    /**
+     * Creates an empty progress row for a user and lesson, unless one already exists.
+     *
+     * @param userId   the unique user ID
+     * @param lessonId the unique lesson ID
+     */
+    @Query("INSERT OR IGNORE INTO LessonProgress (userId, lessonId) VALUES (:userId, :lessonId)")
+    void insertProgressIfAbsent(long userId, long lessonId);
+
+    /**
+     * Inserts many progress rows in a single transaction, keeping any row that already exists.
+     * Used by bulk loaders; single toggles go through {@link #setLessonLiked} and {@link #setLessonDone}.
+     *
+     * @param progress the progress rows to insert
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAllProgress(List<LessonProgress> progress);
+
+    /**
+     * Sets only the like flag of a user's progress row.
+     * Rows already in the requested state are not rewritten, so they do not invalidate observers.
+     *
+     * @param userId   the unique user ID
+     * @param lessonId the unique lesson ID
+     * @param liked    whether the lesson is liked
+     * @return the number of rows changed (0 or 1)
+     */
+    @Query("UPDATE LessonProgress SET `like` = :liked WHERE userId = :userId AND lessonId = :lessonId AND `like` != :liked")
+    int updateProgressLiked(long userId, long lessonId, boolean liked);
+
+    /**
+     * Sets only the done flag of a user's progress row.
+     * Rows already in the requested state are not rewritten, so they do not invalidate observers.
+     *
+     * @param userId   the unique user ID
+     * @param lessonId the unique lesson ID
+     * @param done     whether the lesson is done
+     * @return the number of rows changed (0 or 1)
+     */
+    @Query("UPDATE LessonProgress SET done = :done WHERE userId = :userId AND lessonId = :lessonId AND done != :done")
+    int updateProgressDone(long userId, long lessonId, boolean done);
+
+    /**
+     * Sets the like flag of a lesson for a user, in a single transaction.
+     * A missing progress row already means "not liked", so clearing the flag never creates one.
+     *
+     * @param userId   the unique user ID
+     * @param lessonId the unique lesson ID
+     * @param liked    whether the lesson is liked
+     * @return the number of rows changed (0 or 1)
+     */
+    @Transaction
+    default int setLessonLiked(long userId, long lessonId, boolean liked) {
+        if (liked) {
+            insertProgressIfAbsent(userId, lessonId);
+        }
+        return updateProgressLiked(userId, lessonId, liked);
+    }
+
+    /**
+     * Sets the done flag of a lesson for a user, in a single transaction.
+     * A missing progress row already means "not done", so clearing the flag never creates one.
+     *
+     * @param userId   the unique user ID
+     * @param lessonId the unique lesson ID
+     * @param done     whether the lesson is done
+     * @return the number of rows changed (0 or 1)
+     */
+    @Transaction
+    default int setLessonDone(long userId, long lessonId, boolean done) {
+        if (done) {
+            insertProgressIfAbsent(userId, lessonId);
+        }
+        return updateProgressDone(userId, lessonId, done);
+    }
+
     /**
      * Deletes a lesson from the database.
      *
@@ -59,17 +158,93 @@ public interface LessonsDao {
     void deleteLesson(Lesson lesson);
 
     /**
-     * Retrieves all lessons from the database.
+     * Deletes a lesson by its unique ID.
+     *
+     * @param id the unique lesson ID
+     */
+    @Query("DELETE FROM Lesson WHERE lessonId = :id")
+    void deleteLessonById(long id);
+
+    /**
+     * Retrieves the summary of every lesson, with the done and like flags of one user.
+     * Only the list columns are read, see {@link LessonSummary}. Each lesson is joined to the
+     * user's progress row by its primary key; lessons without a row are neither done nor liked.
      * Returned as a {@link LiveData} list so that the UI can observe
      * and automatically update when the underlying data changes.
      *
-     * @return a {@link LiveData} list of all lessons
+     * @param userId the user whose progress is shown
+     * @return a {@link LiveData} list of all lesson summaries
+     */
+    @Query("SELECT Lesson.lessonId, lesson_name, short_description, lesson_photo, "
+            + "IFNULL(LessonProgress.`like`, 0) AS `like`, IFNULL(LessonProgress.done, 0) AS done "
+            + "FROM Lesson LEFT JOIN LessonProgress "
+            + "ON LessonProgress.userId = :userId AND LessonProgress.lessonId = Lesson.lessonId")
+    LiveData<List<LessonSummary>> getAllLessons(long userId);
+
+    /**
+     * Retrieves all lesson summaries with one user's flags synchronously, the same rows as
+     * {@link #getAllLessons}. Measured by the DAO benchmarks without LiveData's observers.
+     * Must be called off the main thread.
+     *
+     * @param userId the user whose progress is shown
+     * @return all lesson summaries
+     */
+    @Query("SELECT Lesson.lessonId, lesson_name, short_description, lesson_photo, "
+            + "IFNULL(LessonProgress.`like`, 0) AS `like`, IFNULL(LessonProgress.done, 0) AS done "
+            + "FROM Lesson LEFT JOIN LessonProgress "
+            + "ON LessonProgress.userId = :userId AND LessonProgress.lessonId = Lesson.lessonId")
+    List<LessonSummary> getAllLessonSummariesSync(long userId);
+
+    /**
+     * Retrieves the lesson summaries of a single level as a {@link PagingSource},
+     * with the done and like flags of one user.
+     * Room loads the rows page by page and invalidates the source when the
+     * Lesson or LessonProgress table changes, so large catalogs are never loaded into memory at once.
+     * The level filter is served by the index on the level column, each row's progress by the
+     * (userId, lessonId) primary key, and only the list columns are read, see {@link LessonSummary}.
+     *
+     * @param level  the level to load lessons for, matched by its integer code
+     * @param userId the user whose progress is shown
+     * @return a {@link PagingSource} of the matching lesson summaries, ordered by ID
+     */
+    @Query("SELECT Lesson.lessonId, lesson_name, short_description, lesson_photo, "
+            + "IFNULL(LessonProgress.`like`, 0) AS `like`, IFNULL(LessonProgress.done, 0) AS done "
+            + "FROM Lesson LEFT JOIN LessonProgress "
+            + "ON LessonProgress.userId = :userId AND LessonProgress.lessonId = Lesson.lessonId "
+            + "WHERE level = :level ORDER BY Lesson.lessonId")
+    PagingSource<Integer, LessonSummary> getLessonsPagedByLevel(LessonLevel level, long userId);
+
+    /**
+     * Retrieves the first lesson summaries of a level synchronously, the same rows as the
+     * first page of {@link #getLessonsPagedByLevel}. Used to warm the database at process start.
+     * Must be called off the main thread.
+     *
+     * @param level  the level to load lessons for
+     * @param userId the user whose progress is shown
+     * @param limit  the number of lessons to load
+     * @return the first lesson summaries of the level, ordered by ID
+     */
+    @Query("SELECT Lesson.lessonId, lesson_name, short_description, lesson_photo, "
+            + "IFNULL(LessonProgress.`like`, 0) AS `like`, IFNULL(LessonProgress.done, 0) AS done "
+            + "FROM Lesson LEFT JOIN LessonProgress "
+            + "ON LessonProgress.userId = :userId AND LessonProgress.lessonId = Lesson.lessonId "
+            + "WHERE level = :level ORDER BY Lesson.lessonId LIMIT :limit")
+    List<LessonSummary> getFirstLessonsByLevel(LessonLevel level, long userId, int limit);
+
+    /**
+     * Retrieves a user's progress on a single lesson by the (userId, lessonId) primary key.
+     *
+     * @param userId   the unique user ID
+     * @param lessonId the unique lesson ID
+     * @return a {@link LiveData} holding the progress row, or {@code null} if the user has none
      */
-    @Query("SELECT * FROM Lesson")
-    LiveData<List<Lesson>> getAllLessons();
+    @Query("SELECT * FROM LessonProgress WHERE userId = :userId AND lessonId = :lessonId")
+    LiveData<LessonProgress> getLessonProgress(long userId, long lessonId);
 
     /**
-     * Retrieves a single lesson by its unique ID.
+     * Retrieves a single full lesson by its unique ID.
+     * This is the detail query, used by the lesson detail and add/edit screens
+     * for the columns the list does not read.
      * Returned as {@link LiveData} so that the UI can observe
      * changes to this lesson record.
      *
@@ -79,4 +254,224 @@ public interface LessonsDao {
     @Query("SELECT * FROM Lesson WHERE lessonId = :id")
     LiveData<Lesson> getLessonById(long id);
 
+    /**
+     * Retrieves a single full lesson by its unique ID synchronously.
+     * Must be called off the main thread.
+     *
+     * @param id the unique lesson ID
+     * @return the lesson, or {@code null} if it does not exist
+     */
+    @Query("SELECT * FROM Lesson WHERE lessonId = :id")
+    Lesson getLessonByIdSync(long id);
+
+    /**
+     * Retrieves every distinct image, video and recipe path stored in the lessons.
+     * Must be called off the main thread.
+     *
+     * @return the referenced media paths, see {@link LessonMediaCollector}
+     */
+    @Query("SELECT lesson_photo FROM Lesson UNION SELECT lesson_video FROM Lesson "
+            + "UNION SELECT long_description FROM Lesson")
+    List<String> getReferencedMediaPaths();
+
+    /**
+     * Checks whether any lesson still uses a media path as its image, video or recipe.
+     * Must be called off the main thread.
+     *
+     * @param path the stored media path
+     * @return {@code true} if at least one lesson references the path
+     */
+    @Query("SELECT EXISTS(SELECT 1 FROM Lesson WHERE lesson_photo = :path OR lesson_video = :path "
+            + "OR long_description = :path)")
+    boolean isMediaReferenced(String path);
+
+    /**
+     * Inserts or replaces the compressed recipe of a lesson.
+     *
+     * @param recipeContent the {@link RecipeContent} row, keyed by the lesson ID
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertRecipeContent(RecipeContent recipeContent);
+
+    /**
+     * Retrieves the compressed recipe of a lesson synchronously. Must be called off the main thread.
+     *
+     * @param lessonId the unique lesson ID
+     * @return the recipe row, or {@code null} if the lesson has no recipe
+     */
+    @Query("SELECT * FROM RecipeContent WHERE lessonId = :lessonId")
+    RecipeContent getRecipeContent(long lessonId);
+
+    /**
+     * Inserts or replaces the full-text search entry of a lesson.
+     *
+     * @param entry the {@link LessonFts} entry, whose rowid is the lesson ID
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertSearchEntry(LessonFts entry);
+
+    /**
+     * Updates the name and short description of a lesson's search entry,
+     * leaving its recipe text untouched.
+     *
+     * @param lessonId         the ID of the lesson
+     * @param lessonName       the new lesson name
+     * @param shortDescription the new short description
+     */
+    @Query("UPDATE LessonFts SET lesson_name = :lessonName, short_description = :shortDescription WHERE rowid = :lessonId")
+    void updateSearchEntry(long lessonId, String lessonName, String shortDescription);
+
+    /**
+     * Deletes the search entry of a lesson.
+     *
+     * @param lessonId the ID of the lesson
+     */
+    @Query("DELETE FROM LessonFts WHERE rowid = :lessonId")
+    void deleteSearchEntry(long lessonId);
+
+    /**
+     * Inserts a lesson, its recipe and its search entry in a single transaction.
+     *
+     * @param lesson     the {@link Lesson} to insert
+     * @param recipeText the lesson's recipe text
+     * @return the generated ID of the inserted lesson
+     */
+    @Transaction
+    default long insertLessonIndexed(Lesson lesson, String recipeText) {
+        long id = insertLesson(lesson);
+        lesson.setLessonId((int) id);
+        upsertRecipeContent(RecipeContent.fromText((int) id, recipeText));
+        upsertSearchEntry(LessonSearchIndex.toSearchEntry(lesson, recipeText));
+        return id;
+    }
+
+    /**
+     * Inserts many lessons, their recipes and their search entries in a single transaction.
+     *
+     * @param lessons the lessons to insert; each one gets its generated ID
+     * @param recipes the recipe text of each lesson, in the same order
+     */
+    @Transaction
+    default void insertAllIndexed(List<Lesson> lessons, String[] recipes) {
+        long[] ids = insertAll(lessons);
+        for (int i = 0; i < lessons.size(); i++) {
+            Lesson lesson = lessons.get(i);
+            lesson.setLessonId((int) ids[i]);
+            upsertRecipeContent(RecipeContent.fromText(lesson.getLessonId(), recipes[i]));
+            upsertSearchEntry(LessonSearchIndex.toSearchEntry(lesson, recipes[i]));
+        }
+    }
+
+    /**
+     * Updates a lesson and the name and description of its search entry in a single transaction.
+     *
+     * @param lesson the {@link Lesson} object with updated values
+     */
+    @Transaction
+    default void updateLessonIndexed(Lesson lesson) {
+        updateLesson(lesson);
+        updateSearchEntry(lesson.getLessonId(), lesson.getLessonName(), lesson.getShortDescription());
+    }
+
+    /**
+     * Updates a lesson and replaces its recipe and whole search entry in a single transaction.
+     * Used when the recipe of the lesson may have changed.
+     *
+     * @param lesson     the {@link Lesson} object with updated values
+     * @param recipeText the lesson's recipe text
+     */
+    @Transaction
+    default void updateLessonIndexed(Lesson lesson, String recipeText) {
+        updateLesson(lesson);
+        upsertRecipeContent(RecipeContent.fromText(lesson.getLessonId(), recipeText));
+        upsertSearchEntry(LessonSearchIndex.toSearchEntry(lesson, recipeText));
+    }
+
+    /**
+     * Deletes a lesson and its search entry in a single transaction.
+     * Its recipe is removed by the foreign key cascade.
+     *
+     * @param lesson the {@link Lesson} to delete
+     */
+    @Transaction
+    default void deleteLessonIndexed(Lesson lesson) {
+        deleteLesson(lesson);
+        deleteSearchEntry(lesson.getLessonId());
+    }
+
+    /**
+     * Deletes a lesson by its ID together with its search entry in a single transaction.
+     * Its recipe is removed by the foreign key cascade.
+     *
+     * @param id the unique lesson ID
+     */
+    @Transaction
+    default void deleteLessonByIdIndexed(long id) {
+        deleteLessonById(id);
+        deleteSearchEntry(id);
+    }
+
+    /**
+     * Reads the ranking data of every full-text search hit: the lesson ID and the raw matchinfo.
+     * Served by the FTS4 index alone, without joining the lessons or building snippets.
+     *
+     * @param match an FTS4 MATCH expression, see {@link LessonSearchIndex#toMatchQuery(String)}
+     * @return every hit, unranked
+     */
+    @Query("SELECT rowid AS lessonId, matchinfo(LessonFts, 'pcx') AS match_info "
+            + "FROM LessonFts WHERE LessonFts MATCH :match")
+    List<LessonSearchMatch> getSearchMatches(String match);
+
+    /**
+     * Loads the given full-text search hits with their lesson, a highlighted snippet, the term
+     * offsets and the raw matchinfo. The snippet and offsets are only built for these rows.
+     *
+     * @param match     the MATCH expression the hits were found with
+     * @param lessonIds IDs of the hits to load
+     * @return the hits, unranked
+     */
+    @Query("SELECT Lesson.*, "
+            + "snippet(LessonFts, '<b>', '</b>', '…', -1, 12) AS snippet, "
+            + "offsets(LessonFts) AS match_offsets, "
+            + "matchinfo(LessonFts, 'pcx') AS match_info "
+            + "FROM LessonFts JOIN Lesson ON Lesson.lessonId = LessonFts.rowid "
+            + "WHERE LessonFts MATCH :match AND LessonFts.rowid IN (:lessonIds)")
+    List<LessonSearchResult> getSearchResults(String match, List<Long> lessonIds);
+
+    /**
+     * Full-text search over lesson names, short descriptions and recipe text, in one transaction.
+     * Every hit is ranked from its matchinfo by {@link LessonSearchIndex}, and only the best
+     * {@code limit} hits are loaded in full, so the cost of a common term stays bounded.
+     *
+     * @param match an FTS4 MATCH expression, see {@link LessonSearchIndex#toMatchQuery(String)}
+     * @param limit the maximum number of results
+     * @return the best matching lessons, best match first
+     */
+    @Transaction
+    default List<LessonSearchResult> searchLessons(String match, int limit) {
+        List<Long> lessonIds = LessonSearchIndex.topMatches(getSearchMatches(match), limit);
+        if (lessonIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<LessonSearchResult> results = getSearchResults(match, lessonIds);
+        LessonSearchIndex.rank(results);
+        return results;
+    }
+
+    /**
+     * Retrieves a user's progress counters of every level.
+     * Lesson counts come from the trigger-maintained LevelProgress rows and the done and liked
+     * counts from the user's trigger-maintained UserLevelCounter rows, so the query reads
+     * O(levels) rows however large the catalog or the user's progress is.
+     *
+     * @param userId the user whose progress is counted
+     * @return a {@link LiveData} list of level counters
+     */
+    @Query("SELECT LevelProgress.level, LevelProgress.lesson_count, "
+            + "IFNULL(UserLevelCounter.done_count, 0) AS done_count, "
+            + "IFNULL(UserLevelCounter.liked_count, 0) AS liked_count "
+            + "FROM LevelProgress LEFT JOIN UserLevelCounter "
+            + "ON UserLevelCounter.userId = :userId AND UserLevelCounter.level = LevelProgress.level")
+    LiveData<List<UserLevelProgress>> getLevelProgress(long userId);
+
 }
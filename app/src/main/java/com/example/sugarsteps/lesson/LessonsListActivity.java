@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.graphics.Typeface;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.ImageButton;
@@ -15,25 +16,42 @@ import android.widget.Toast;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.LoadState;
+import androidx.paging.PagingData;
 import androidx.recyclerview.widget.ItemTouchHelper;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.sugarsteps.DB.DatabaseMaintenanceWorker;
+import com.example.sugarsteps.DB.QueryMetrics;
 import com.example.sugarsteps.R;
+import com.example.sugarsteps.ScreenMetrics;
+import com.example.sugarsteps.ScreenReadinessTracker;
 import com.example.sugarsteps.user.SettingsActivity;
+import com.example.sugarsteps.user.User;
 import com.example.sugarsteps.user.UserViewModel;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.google.android.material.tabs.TabLayout;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+import java.util.Map;
+
+import kotlin.Unit;
 
 public class LessonsListActivity extends AppCompatActivity {
 
+    private static final String TAG = "LessonsListActivity";
+
+    // Content the screen waits for before it is reported fully drawn
+    private static final String READY_USER = "user";        // Greeting and level tab of the user
+    private static final String READY_LESSONS = "lessons";  // First page of lessons bound
+
     private ActivityResultLauncher<Intent> settingsActivityLauncher;
 
     // UI components
@@ -45,19 +63,18 @@ public class LessonsListActivity extends AppCompatActivity {
     private ImageView menuImgBtn;           // Menu button to open up
     private ImageButton infoBtn;            // Info button
 
-    // Data structures
-    private List<Lesson> allLessons = new ArrayList<>();       // List containing all lessons
-    private List<Lesson> filteredLessons = new ArrayList<>();  // List filtered by selected level
-
     // ViewModel
     private UserViewModel userViewModel;  // ViewModel to access user data asynchronously
+    private LessonsViewModel lessonsViewModel;  // ViewModel to access lessons data asynchronously
 
     private int selectedBackground = 1;  // Selected background ID loaded from preferences, default 1
+    private ScreenReadinessTracker readiness;  // Reports the screen fully drawn once user and lessons are shown
 
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        readiness = ScreenReadinessTracker.start(this, "LessonsList", READY_USER, READY_LESSONS);
         setContentView(R.layout.lessons_list);  // Set layout for the activity
 
         initViews();  // Initialize all UI views
@@ -69,6 +86,8 @@ public class LessonsListActivity extends AppCompatActivity {
         setupViewModel();  // Initialize ViewModels and observe lessons data
         setupTabs();  // Initialize TabLayout with custom tabs and iconsס
         setupListeners();  // Setup event listeners for UI components
+        bindCatalogSnapshot();  // Show the user and lessons prefetched during the splash on the first frame
+        lessonsViewModel.selectLevel(getSelectedTabLevel());  // Show the lessons of the initially selected tab
 
         loadUserFromPrefs();  // Load user data from SharedPreferences and update UI accordingly
 
@@ -165,8 +184,8 @@ public class LessonsListActivity extends AppCompatActivity {
      * Initializes the RecyclerView, sets its layout manager and adapter.
      */
     private void setupRecyclerView() {
-        // Initialize the LessonAdapter with filtered lessons list
-        lessonAdapter = new LessonAdapter(this, filteredLessons);
+        // Initialize the paging LessonAdapter, lessons are submitted per level
+        lessonAdapter = new LessonAdapter(this);
 
         // Set LinearLayoutManager for vertical scrolling
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
@@ -178,30 +197,61 @@ public class LessonsListActivity extends AppCompatActivity {
 
     /**
      * Initializes the UserViewModel and LessonsViewModel.
-     * Observes lessons LiveData to update the lessons list and filter by selected tab.
+     * Observes the paged lessons of the selected level; a tab switch only swaps the level.
      */
     private void setupViewModel() {
         // Initialize UserViewModel to access user data
         userViewModel = new ViewModelProvider(this).get(UserViewModel.class);
 
-        // Initialize LessonsViewModel and observe all lessons data
-        LessonsViewModel lessonsViewModel = new ViewModelProvider(this).get(LessonsViewModel.class);
-        lessonsViewModel.getAllLessons().observe(this, lessons -> {
-            if (lessons != null) {
-                // Update the full lessons list when new data arrives
-                allLessons.clear();
-                allLessons.addAll(lessons);
-
-                // Filter lessons by currently selected tab's level
-                TabLayout.Tab selectedTab = tabLayout.getTabAt(tabLayout.getSelectedTabPosition());
-                if (selectedTab != null && selectedTab.getCustomView() != null) {
-                    TextView tabText = selectedTab.getCustomView().findViewById(R.id.tab_text);
-                    if (tabText != null) {
-                        filterLessonsByLevel(tabText.getText().toString());
-                    }
-                }
+        // Initialize LessonsViewModel and observe the lessons of the selected level
+        lessonsViewModel = new ViewModelProvider(this).get(LessonsViewModel.class);
+        lessonsViewModel.getSelectedLevelLessons().observe(this,
+                pagingData -> lessonAdapter.submitData(getLifecycle(), pagingData));
+
+        // The lessons are shown once a first page is bound, the prefetched one or the queried one;
+        // measured as time to full display by the startup benchmark
+        lessonAdapter.addLoadStateListener(loadStates -> {
+            if (loadStates.getRefresh() instanceof LoadState.NotLoading
+                    && (lessonAdapter.getItemCount() > 0 || loadStates.getAppend().getEndOfPaginationReached())) {
+                readiness.markReady(READY_LESSONS);
             }
+            return Unit.INSTANCE;
         });
+
+        // Observe the user's per-level counters and show them as tab badges
+        lessonsViewModel.getLevelProgress().observe(this, this::updateTabBadges);
+    }
+
+    /**
+     * Shows each level's done and liked counters under its tab title.
+     *
+     * @param progressByLevel The counters of every level, keyed by level
+     */
+    private void updateTabBadges(Map<LessonLevel, UserLevelProgress> progressByLevel) {
+        for (int i = 0; i < tabLayout.getTabCount(); i++) {
+            TabLayout.Tab tab = tabLayout.getTabAt(i);
+            if (tab == null || tab.getCustomView() == null) continue;
+
+            TextView tabBadge = tab.getCustomView().findViewById(R.id.tab_badge);
+            UserLevelProgress progress = progressByLevel.get(LessonLevel.fromPosition(i)); // Tabs are in level order
+
+            if (progress == null || progress.getLessonCount() == 0) {
+                tabBadge.setVisibility(View.GONE); // No lessons in this level
+            } else {
+                tabBadge.setText(getString(R.string.level_progress_badge,
+                        progress.getDoneCount(), progress.getLessonCount(), progress.getLikedCount()));
+                tabBadge.setVisibility(View.VISIBLE);
+            }
+        }
+    }
+
+    /**
+     * Returns the level shown by the currently selected tab.
+     *
+     * @return The selected tab's level, or {@link LessonLevel#BEGINNER} if no tab is selected
+     */
+    private LessonLevel getSelectedTabLevel() {
+        return LessonLevel.fromPosition(tabLayout.getSelectedTabPosition());
     }
 
 
@@ -213,13 +263,7 @@ public class LessonsListActivity extends AppCompatActivity {
         tabLayout.addOnTabSelectedListener(new TabLayout.OnTabSelectedListener() {
             @Override public void onTabSelected(TabLayout.Tab tab) {
                 updateTabStyle(tab, true);
-                String selectedLevel = "";
-                View customView = tab.getCustomView();
-                if (customView != null) {
-                    TextView tabText = customView.findViewById(R.id.tab_text);
-                    if (tabText != null) selectedLevel = tabText.getText().toString();
-                }
-                filterLessonsByLevel(selectedLevel);
+                lessonsViewModel.selectLevel(LessonLevel.fromPosition(tab.getPosition())); // Tabs are in level order
             }
             @Override public void onTabUnselected(TabLayout.Tab tab) {
                 updateTabStyle(tab, false);
@@ -253,6 +297,33 @@ public class LessonsListActivity extends AppCompatActivity {
         });
     }
 
+    /**
+     * Binds the catalog prefetched during the splash screen: greeting, add button, the user's
+     * level tab and its first page of lessons, so the first frame is already filled.
+     * Selecting the tab before the first level is chosen means only that level's lessons are queried.
+     * The observed queries replace the snapshot with live data right after, see {@link CatalogSnapshot}.
+     */
+    private void bindCatalogSnapshot() {
+        long userId = getSharedPreferences("SugarStepsPref", MODE_PRIVATE).getLong("userId", -1);
+        CatalogSnapshot snapshot = CatalogSnapshot.take(userId);
+        if (snapshot == null) return;  // Not started by the splash screen, nothing prefetched, or expired
+
+        User user = snapshot.getUser();
+        helloUserTv.setText("שלום, " + user.getUsername());
+        addFab.setVisibility("guide".equals(user.getRole()) ? View.VISIBLE : View.GONE);
+
+        TabLayout.Tab selectedTab = tabLayout.getTabAt(getTabIndexByLevel(snapshot.getLevel()));
+        if (selectedTab != null) {
+            tabLayout.selectTab(selectedTab);
+            updateTabStyle(selectedTab, true);
+        }
+        readiness.markReady(READY_USER);
+
+        lessonAdapter.submitData(getLifecycle(), PagingData.from(snapshot.getLessons()));  // Static first page
+        Log.i(TAG, "Bound " + snapshot.getLessons().size() + " prefetched lessons, loaded "
+                + snapshot.getAgeMs() + " ms ago");
+    }
+
     /**
      * Loads the userId from SharedPreferences and calls loadUserData with it.
      */
@@ -299,17 +370,15 @@ public class LessonsListActivity extends AppCompatActivity {
                 }
 
                 // Taking care of the tab according User's level
-                String level = user.getLevel();
-                int tabIndex = 0;
-                if ("מתקדמים".equals(level)) tabIndex = 1;
-                else if ("מומחים".equals(level)) tabIndex = 2;
+                LessonLevel level = user.getLevel();
+                int tabIndex = getTabIndexByLevel(level);
 
                 // Automatic selecting of the rigth Tab
                 TabLayout.Tab selectedTab = tabLayout.getTabAt(tabIndex);
                 if (selectedTab != null) {
                     tabLayout.selectTab(selectedTab);
                     updateTabStyle(selectedTab, true);
-                    filterLessonsByLevel(level);
+                    lessonsViewModel.selectLevel(LessonLevel.fromPosition(tabIndex));
                 }
             }
         });
@@ -327,21 +396,17 @@ public class LessonsListActivity extends AppCompatActivity {
                 R.drawable.ic_expert
         };  // Icons for each tab
 
-        String[] tabTitles = {
-                getString(R.string.beginner),
-                getString(R.string.advanced),
-                getString(R.string.expert)
-        };  // Titles for each tab
+        LessonLevel[] tabLevels = LessonLevel.values();  // One tab per level, in level order
 
         // Create tabs with custom views
-        for (int i = 0; i < tabTitles.length; i++) {
+        for (int i = 0; i < tabLevels.length; i++) {
             TabLayout.Tab tab = tabLayout.newTab();  // Create new tab
             View customTab = getLayoutInflater().inflate(R.layout.tab_custom, null);  // Inflate custom tab layout
 
             TextView tabText = customTab.findViewById(R.id.tab_text);  // Find text view in custom tab
             ImageView tabIcon = customTab.findViewById(R.id.tab_icon);  // Find icon view in custom tab
 
-            tabText.setText(tabTitles[i]);    // Set tab title text
+            tabText.setText(tabLevels[i].getDisplayName());    // Set tab title text
             tabIcon.setImageResource(icons[i]);  // Set tab icon image
 
             tab.setCustomView(customTab);  // Assign custom view to tab
@@ -371,22 +436,6 @@ public class LessonsListActivity extends AppCompatActivity {
         }
     }
 
-    /**
-     * Filters the lesson list by the provided level and updates the RecyclerView adapter.
-     *
-     * @param level The level to filter lessons by (e.g., "Beginner", "Advanced", "Expert")
-     */
-    private void filterLessonsByLevel(String level) {
-        filteredLessons.clear();  // Clear currently displayed lessons
-
-        for (Lesson lesson : allLessons) {
-            if (lesson.getLevel().equalsIgnoreCase(level)) {  // Compare level ignoring case
-                filteredLessons.add(lesson);                    // Add lesson if level matches
-            }
-        }
-        lessonAdapter.notifyDataSetChanged();  // Notify adapter about data change to refresh UI
-    }
-
     /**
      * Loads the user data by userId and updates the UI accordingly.
      * Also sets up swipe-to-delete and long-press-to-edit if the user is a guide.
@@ -399,15 +448,16 @@ public class LessonsListActivity extends AppCompatActivity {
                 helloUserTv.setText("שלום, " + user.getUsername());
                 addFab.setVisibility("guide".equals(user.getRole()) ? View.VISIBLE : View.GONE);
 
-                String level = user.getLevel();
+                LessonLevel level = user.getLevel();
                 int tabIndex = getTabIndexByLevel(level);
 
                 TabLayout.Tab selectedTab = tabLayout.getTabAt(tabIndex);
                 if (selectedTab != null) {
                     tabLayout.selectTab(selectedTab);
                     updateTabStyle(selectedTab, true);
-                    filterLessonsByLevel(level);
+                    lessonsViewModel.selectLevel(LessonLevel.fromPosition(tabIndex));
                 }
+                readiness.markReady(READY_USER);
                 setupInfoButton(user.getRole()); // Showing pop up message according role
 
                 if ("guide".equals(user.getRole())) {
@@ -423,9 +473,13 @@ public class LessonsListActivity extends AppCompatActivity {
                         @Override
                         public void onSwiped(@NonNull RecyclerView.ViewHolder viewHolder, int direction) {
                             int position = viewHolder.getAdapterPosition();
-                            Lesson lessonToDelete = lessonAdapter.getLessonAt(position);
-                            LessonsViewModel viewModel = new ViewModelProvider(LessonsListActivity.this).get(LessonsViewModel.class);
-                            viewModel.deleteLesson(lessonToDelete);
+                            LessonSummary lessonToDelete = lessonAdapter.getLessonAt(position);
+                            if (lessonToDelete == null) {
+                                // Placeholder row, its lesson is not loaded yet
+                                lessonAdapter.notifyItemChanged(position);
+                                return;
+                            }
+                            lessonsViewModel.deleteLessonById(lessonToDelete.getLessonId());
                             Toast.makeText(LessonsListActivity.this, "השיעור נמחק בהצלחה", Toast.LENGTH_SHORT).show();
                         }
                     };
@@ -448,51 +502,25 @@ public class LessonsListActivity extends AppCompatActivity {
     }
 
     /**
-     * Reloads lessons data from the database and updates the list and filter.
+     * Reloads lessons data from the database and updates the list of the selected level.
      */
     private void reloadLessons() {
-        // Create or get an instance of LessonsViewModel to access lesson data
-        LessonsViewModel lessonsViewModel = new ViewModelProvider(this).get(LessonsViewModel.class);
-
-        // Observe the LiveData containing all lessons from the database
-        lessonsViewModel.getAllLessons().observe(this, lessons -> {
-            if (lessons != null) {
-                // Clear the current list of all lessons to prepare for fresh data
-                allLessons.clear();
-
-                // Add all the newly fetched lessons to the allLessons list
-                allLessons.addAll(lessons);
+        // Make sure the selected tab's level is the one being shown
+        lessonsViewModel.selectLevel(getSelectedTabLevel());
 
-                // Get the currently selected tab from the TabLayout
-                TabLayout.Tab selectedTab = tabLayout.getTabAt(tabLayout.getSelectedTabPosition());
-
-                // Check if a tab is selected and it has a custom view set
-                if (selectedTab != null && selectedTab.getCustomView() != null) {
-                    // Find the TextView inside the custom tab view that contains the tab's title
-                    TextView tabText = selectedTab.getCustomView().findViewById(R.id.tab_text);
-
-                    if (tabText != null) {
-                        // Use the tab's title text to filter the lessons by the selected level
-                        filterLessonsByLevel(tabText.getText().toString());
-                    }
-                }
-            }
-        });
+        // Reload the current pages from the database
+        lessonAdapter.refresh();
     }
 
 
     /**
      * Returns the tab index corresponding to the user level.
      *
-     * @param level User level string (Hebrew): "מתקדמים", "מומחים", or default
+     * @param level User level, or {@code null} if not set
      * @return Tab index (0 = beginner, 1 = advanced, 2 = expert)
      */
-    private int getTabIndexByLevel(String level) {
-        switch (level) {
-            case "מתקדמים": return 1;
-            case "מומחים": return 2;
-            default: return 0;
-        }
+    private int getTabIndexByLevel(LessonLevel level) {
+        return level == null ? 0 : level.getPosition();
     }
 
     /**
@@ -535,6 +563,20 @@ public class LessonsListActivity extends AppCompatActivity {
         infoBtn.setOnClickListener(v -> showPopup(role));
     }
 
+    /**
+     * Adds the database query metrics, the last maintenance run and the screen readiness
+     * latencies to the activity dump, so slow DAO calls and screens can be read with
+     * {@code adb shell dumpsys activity com.example.sugarsteps/.lesson.LessonsListActivity}.
+     */
+    @Override
+    public void dump(@NonNull String prefix, @Nullable FileDescriptor fd, @NonNull PrintWriter writer,
+                     @Nullable String[] args) {
+        super.dump(prefix, fd, writer, args);
+        QueryMetrics.getInstance().dump(prefix, writer);
+        DatabaseMaintenanceWorker.dump(this, prefix, writer);
+        ScreenMetrics.getInstance(this).dump(prefix, writer);
+    }
+
 
 }
 
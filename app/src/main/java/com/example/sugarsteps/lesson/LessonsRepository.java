@@ -3,9 +3,17 @@ package com.example.sugarsteps.lesson;
 import android.app.Application;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
+import com.example.sugarsteps.DB.DatabaseInitializer;
 import com.example.sugarsteps.DB.SugarStepsDataBase;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -18,88 +26,213 @@ import java.util.concurrent.Executors;
  * and the rest of the application, specifically the ViewModel and UI layers.
  *
  * Features:
- * - Retrieve all lessons as LiveData.
- * - Insert, update, and delete lessons asynchronously.
- * - Retrieve a lesson by its ID.
+ * - Retrieve slim summaries of all lessons, with a user's progress, as LiveData.
+ * - Retrieve the summaries of a level, with a user's progress, as paged LiveData.
+ * - Insert, update, and delete lessons asynchronously; media files a lesson no longer uses are deleted.
+ * - Toggle a user's like and done state of a lesson with a small progress-row write.
+ * - Retrieve a lesson by its ID, emitting only when that lesson's row actually changes.
+ * - Retrieve a user's progress on a lesson, emitting only when it actually changes.
+ * - Per-user, per-level progress counters as LiveData.
+ * - Lazy loading of a lesson's stored recipe text.
+ * - Ranked full-text search, with every write kept in sync with the search index.
+ * - Uses the database opened at process start by {@link DatabaseInitializer}, without
+ *   waiting for it on the main thread.
  *
  * Follows the Repository design pattern to promote separation of concerns
  * and easier testing/maintenance.
  *
  * @author Sivan Lasri
- * @version 8.0
+ * @version 19.0
  */
 public class LessonsRepository {
 
+    /** Number of lessons loaded per page by the paged lesson list. */
+    public static final int PAGE_SIZE = 20;
+
+    /** How far from the edge of the loaded lessons the next page is requested. */
+    private static final int PREFETCH_DISTANCE = 10;
+
     /** DAO for performing CRUD operations on Lesson entities. */
     private LessonsDao lessonsDao;
 
-    /** LiveData list of all lessons, observed by the UI for automatic updates. */
-    private LiveData<List<Lesson>> allLessons;
+    /** Helper that reads recipe text and ranks full-text search hits. */
+    private LessonSearchIndex searchIndex;
+
+    /** Deletes the media files a deleted or edited lesson no longer uses. */
+    private LessonMediaCollector mediaCollector;
 
     /** Executor service for running database operations off the main thread. */
     private ExecutorService executorService;
 
     /**
-     * Constructs the repository, initializing the database, DAO, LiveData list,
+     * Constructs the repository, initializing the database, DAO,
      * and the background executor service.
      *
      * @param application the application context used to get the Room database instance
      */
     public LessonsRepository(Application application) {
-        // Get the singleton instance of the Room database
-        SugarStepsDataBase db = SugarStepsDataBase.getDatabase(application);
+        // Get the Room database without waiting for the open started with the process;
+        // every query runs off the main thread, where it waits for the open if needed
+        SugarStepsDataBase db = DatabaseInitializer.getDatabase(application);
 
         // Initialize the DAO
         lessonsDao = db.lessonsDao();
 
-        // Retrieve all lessons as LiveData
-        allLessons = lessonsDao.getAllLessons();
+        // Initialize the full-text search helper
+        searchIndex = new LessonSearchIndex(application);
+
+        // Initialize the orphaned media collector
+        mediaCollector = new LessonMediaCollector(application, lessonsDao);
 
         // Executor for background tasks
         executorService = Executors.newSingleThreadExecutor();
     }
 
     /**
-     * Retrieves all lessons from the database.
+     * Retrieves the summaries of all lessons from the database, with a user's progress.
      * <p>
      * Since this returns {@link LiveData}, the UI will automatically update
      * when the data changes in the database.
      *
-     * @return a {@link LiveData} list of all lessons
+     * @param userId the user whose done and like flags are shown
+     * @return a {@link LiveData} list of all lesson summaries
      */
-    public LiveData<List<Lesson>> getAllLessons() {
-        return allLessons;
+    public LiveData<List<LessonSummary>> getAllLessons(long userId) {
+        return lessonsDao.getAllLessons(userId);
     }
 
     /**
-     * Inserts a new lesson into the database asynchronously.
+     * Retrieves the lesson summaries of a level page by page, with a user's progress.
+     * <p>
+     * Placeholders are enabled, so the list knows the full size of the level
+     * up front while only the visible pages are kept in memory.
+     *
+     * @param level  the level to load lessons for
+     * @param userId the user whose done and like flags are shown
+     * @return a {@link LiveData} stream of {@link PagingData} for the level
+     */
+    public LiveData<PagingData<LessonSummary>> getPagedLessonsByLevel(LessonLevel level, long userId) {
+        Pager<Integer, LessonSummary> pager = new Pager<>(
+                new PagingConfig(PAGE_SIZE, PREFETCH_DISTANCE, true),
+                () -> lessonsDao.getLessonsPagedByLevel(level, userId));
+        return PagingLiveData.getLiveData(pager);
+    }
+
+    /**
+     * Retrieves a user's lesson, done and liked counters of every level.
+     *
+     * @param userId the user whose progress is counted
+     * @return a {@link LiveData} list of level counters
+     */
+    public LiveData<List<UserLevelProgress>> getLevelProgress(long userId) {
+        return lessonsDao.getLevelProgress(userId);
+    }
+
+    /**
+     * Retrieves a user's progress on a lesson.
+     * <p>
+     * Room re-runs the query on every write to the progress table, so emissions are
+     * filtered and only a change of this lesson's flags reaches the observer.
+     * The value is {@code null} while the user has no progress row for the lesson.
+     *
+     * @param userId   the unique ID of the user
+     * @param lessonId the unique ID of the lesson
+     * @return a {@link LiveData} holding the progress
+     */
+    public LiveData<LessonProgress> getLessonProgress(long userId, long lessonId) {
+        return Transformations.distinctUntilChanged(lessonsDao.getLessonProgress(userId, lessonId));
+    }
+
+    /**
+     * Loads the recipe text of a lesson asynchronously, with a single indexed row fetch.
+     * <p>
+     * Emits once; the value is {@code null} if the lesson has no stored recipe.
+     *
+     * @param lessonId the unique ID of the lesson
+     * @return a {@link LiveData} holding the recipe text
+     */
+    public LiveData<String> getRecipeText(long lessonId) {
+        MutableLiveData<String> recipeText = new MutableLiveData<>();
+        executorService.execute(() -> {
+            RecipeContent recipe = lessonsDao.getRecipeContent(lessonId);
+            recipeText.postValue(recipe != null ? recipe.getText() : null);
+        });
+        return recipeText;
+    }
+
+    /**
+     * Searches lesson names, short descriptions and recipe text asynchronously.
+     * <p>
+     * Hits are ranked best match first, each with a highlighted snippet and the
+     * offsets of the matched terms, up to {@link LessonSearchIndex#MAX_RESULTS} of them.
+     * Blank queries emit an empty list.
+     *
+     * @param query the text typed by the user
+     * @return a {@link LiveData} list of ranked search hits
+     */
+    public LiveData<List<LessonSearchResult>> search(String query) {
+        MutableLiveData<List<LessonSearchResult>> results = new MutableLiveData<>();
+        executorService.execute(() -> {
+            String match = LessonSearchIndex.toMatchQuery(query);
+            if (match.isEmpty()) {
+                results.postValue(Collections.emptyList());
+                return;
+            }
+            results.postValue(lessonsDao.searchLessons(match, LessonSearchIndex.MAX_RESULTS));
+        });
+        return results;
+    }
+
+    /**
+     * Inserts a new lesson, its recipe text and its search entry into the database asynchronously.
      *
      * @param lesson the {@link Lesson} object to insert
      */
     public void insert(final Lesson lesson) {
-        executorService.execute(() -> lessonsDao.insertLesson(lesson));
+        executorService.execute(() -> lessonsDao.insertLessonIndexed(lesson, searchIndex.readRecipeText(lesson)));
     }
 
     /**
-     * Deletes an existing lesson from the database asynchronously.
+     * Deletes an existing lesson and its search entry from the database asynchronously,
+     * then deletes its media files unless another lesson uses them.
      *
      * @param lesson the {@link Lesson} object to delete
      */
     public void delete(final Lesson lesson) {
-        executorService.execute(() -> lessonsDao.deleteLesson(lesson));
+        executorService.execute(() -> {
+            Lesson stored = lessonsDao.getLessonByIdSync(lesson.getLessonId()); // Paths as saved
+            lessonsDao.deleteLessonIndexed(lesson);
+            releaseMedia(stored);
+        });
+    }
+
+    /**
+     * Deletes a lesson and its search entry by the lesson ID asynchronously,
+     * then deletes its media files unless another lesson uses them.
+     *
+     * @param id the unique ID of the lesson
+     */
+    public void deleteById(final long id) {
+        executorService.execute(() -> {
+            Lesson stored = lessonsDao.getLessonByIdSync(id);
+            lessonsDao.deleteLessonByIdIndexed(id);
+            releaseMedia(stored);
+        });
     }
 
     /**
-     * Retrieves a specific lesson by its ID.
+     * Retrieves a specific full lesson by its ID (the detail query).
      *
      * Since this returns {@link LiveData}, the UI will automatically observe
-     * and update when the lesson data changes.
+     * and update when the lesson data changes. Room re-runs the query on every write
+     * to the Lesson table, so emissions are filtered by value equality and writes to
+     * other lessons do not reach the observer.
      *
      * @param id the unique ID of the lesson
      * @return a {@link LiveData} object containing the lesson
      */
     public LiveData<Lesson> getLessonById(long id) {
-        return lessonsDao.getLessonById(id);
+        return Transformations.distinctUntilChanged(lessonsDao.getLessonById(id));
     }
 
     /**
@@ -108,7 +241,61 @@ public class LessonsRepository {
      * @param lesson the {@link Lesson} object to update
      */
     public void update(final Lesson lesson) {
-        executorService.execute(() -> lessonsDao.updateLesson(lesson));
+        executorService.execute(() -> {
+            Lesson stored = lessonsDao.getLessonByIdSync(lesson.getLessonId());
+            lessonsDao.updateLessonIndexed(lesson);
+            releaseMedia(stored); // Files replaced by the edit
+        });
+    }
+
+    /**
+     * Updates an existing lesson asynchronously and re-reads its recipe into the database and the search index.
+     * Used after editing a lesson, when its recipe file may have changed.
+     *
+     * @param lesson the {@link Lesson} object to update
+     */
+    public void updateWithRecipe(final Lesson lesson) {
+        executorService.execute(() -> {
+            Lesson stored = lessonsDao.getLessonByIdSync(lesson.getLessonId());
+            lessonsDao.updateLessonIndexed(lesson, searchIndex.readRecipeText(lesson));
+            releaseMedia(stored); // Files replaced by the edit
+        });
+    }
+
+    // Deletes the media files of a lesson's previous row that no lesson references any more
+    private void releaseMedia(Lesson previous) {
+        if (previous != null) {
+            mediaCollector.release(previous.getLessonPhoto(), previous.getLessonVideo(),
+                    previous.getLongDescription());
+        }
+    }
+
+    /**
+     * Sets a user's like state of a lesson asynchronously.
+     * Only the user's progress row is written, the lesson row is left untouched.
+     * Ignored when no user is registered, as progress always belongs to a user.
+     *
+     * @param userId   the unique ID of the user
+     * @param lessonId the unique ID of the lesson
+     * @param liked    whether the lesson is liked
+     */
+    public void setLessonLiked(final long userId, final long lessonId, final boolean liked) {
+        if (userId < 0) return;
+        executorService.execute(() -> lessonsDao.setLessonLiked(userId, lessonId, liked));
+    }
+
+    /**
+     * Sets a user's done state of a lesson asynchronously.
+     * Only the user's progress row is written, the lesson row is left untouched.
+     * Ignored when no user is registered, as progress always belongs to a user.
+     *
+     * @param userId   the unique ID of the user
+     * @param lessonId the unique ID of the lesson
+     * @param done     whether the lesson is done
+     */
+    public void setLessonDone(final long userId, final long lessonId, final boolean done) {
+        if (userId < 0) return;
+        executorService.execute(() -> lessonsDao.setLessonDone(userId, lessonId, done));
     }
 
 }
@@ -1,11 +1,18 @@
 package com.example.sugarsteps.lesson;
 
 import android.app.Application;
+import android.content.Context;
 
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * ViewModel class that provides data to the UI and survives configuration changes.
@@ -13,18 +20,36 @@ import java.util.List;
  * Acts as a communication center between the {@link LessonsRepository}
  * and the UI (Activity/Fragment) in the MVVM architecture.
  *
+ * Done and like flags are read and written for the user saved in SharedPreferences
+ * at registration, so each profile on the device sees its own progress.
+ *
  * @author
  *     Sivan Lasri
  * @version
- *     5.0
+ *     10.0
  */
 public class LessonsViewModel extends AndroidViewModel {
 
     /** Reference to the repository that handles Lesson data operations. */
     private LessonsRepository lessonsRepository;
 
-    /** LiveData list of all lessons, observed by the UI for automatic updates. */
-    private LiveData<List<Lesson>> allLessons;
+    /** ID of the registered user whose progress is shown, or -1 if there is none. */
+    private final long userId;
+
+    /** LiveData list of all lesson summaries, observed by the UI for automatic updates. */
+    private LiveData<List<LessonSummary>> allLessons;
+
+    /** Level of the currently selected tab. */
+    private final MutableLiveData<LessonLevel> selectedLevel = new MutableLiveData<>();
+
+    /** Paged lessons per level, cached so switching back to a tab reuses its stream. */
+    private final Map<LessonLevel, LiveData<PagingData<LessonSummary>>> pagedLessonsByLevel = new EnumMap<>(LessonLevel.class);
+
+    /** The user's progress counters of every level, keyed by level. */
+    private final LiveData<Map<LessonLevel, UserLevelProgress>> levelProgress;
+
+    /** Paged lessons of the selected level, switched whenever the selected level changes. */
+    private final LiveData<PagingData<LessonSummary>> selectedLevelLessons;
 
     /**
      * Constructs the ViewModel and initializes the repository and LiveData.
@@ -34,21 +59,83 @@ public class LessonsViewModel extends AndroidViewModel {
     public LessonsViewModel(Application application) {
         super(application);
         lessonsRepository = new LessonsRepository(application);
-        allLessons = lessonsRepository.getAllLessons();
+        userId = application.getSharedPreferences("SugarStepsPref", Context.MODE_PRIVATE).getLong("userId", -1);
+        allLessons = lessonsRepository.getAllLessons(userId);
+        selectedLevelLessons = Transformations.switchMap(selectedLevel, this::getPagedLessonsByLevel);
+        levelProgress = Transformations.map(lessonsRepository.getLevelProgress(userId), rows -> {
+            Map<LessonLevel, UserLevelProgress> byLevel = new EnumMap<>(LessonLevel.class);
+            for (UserLevelProgress row : rows) {
+                if (row.getLevel() != null) {
+                    byLevel.put(row.getLevel(), row); // Rows of unknown level codes are skipped
+                }
+            }
+            return byLevel;
+        });
     }
 
     /**
-     * Retrieves all lessons from the repository.
+     * Retrieves the summaries of all lessons from the repository.
      *
      * Since this returns {@link LiveData}, the UI will automatically update
      * when the lessons in the database change.
      *
-     * @return a {@link LiveData} list of all lessons
+     * @return a {@link LiveData} list of all lesson summaries
      */
-    public LiveData<List<Lesson>> getAllLessons() {
+    public LiveData<List<LessonSummary>> getAllLessons() {
         return allLessons;
     }
 
+    /**
+     * Retrieves the user's progress counters of every level, keyed by level.
+     *
+     * @return a {@link LiveData} map from level to its counters
+     */
+    public LiveData<Map<LessonLevel, UserLevelProgress>> getLevelProgress() {
+        return levelProgress;
+    }
+
+    /**
+     * Selects the level whose lessons are emitted by {@link #getSelectedLevelLessons()}.
+     * Selecting the level that is already selected, or no level, does nothing.
+     *
+     * @param level the level of the selected tab
+     */
+    public void selectLevel(LessonLevel level) {
+        if (level != null && level != selectedLevel.getValue()) {
+            selectedLevel.setValue(level);
+        }
+    }
+
+    /**
+     * Retrieves the paged lessons of the selected level.
+     *
+     * The UI observes this once, and each tab switch only swaps in the
+     * stream of the newly selected level.
+     *
+     * @return a {@link LiveData} stream of {@link PagingData} for the selected level
+     */
+    public LiveData<PagingData<LessonSummary>> getSelectedLevelLessons() {
+        return selectedLevelLessons;
+    }
+
+    /**
+     * Retrieves the lessons of a level page by page.
+     *
+     * Each level's stream is cached in the ViewModel scope, so asking again for
+     * the same level returns the same {@link LiveData} without re-running the query.
+     *
+     * @param level the level to load lessons for
+     * @return a {@link LiveData} stream of {@link PagingData} for the level
+     */
+    public LiveData<PagingData<LessonSummary>> getPagedLessonsByLevel(LessonLevel level) {
+        LiveData<PagingData<LessonSummary>> lessons = pagedLessonsByLevel.get(level);
+        if (lessons == null) {
+            lessons = PagingLiveData.cachedIn(lessonsRepository.getPagedLessonsByLevel(level, userId), this);
+            pagedLessonsByLevel.put(level, lessons);
+        }
+        return lessons;
+    }
+
     /**
      * Inserts a new lesson into the database via the repository.
      *
@@ -68,7 +155,46 @@ public class LessonsViewModel extends AndroidViewModel {
     }
 
     /**
-     * Retrieves a lesson by its unique ID from the repository.
+     * Deletes a lesson by its unique ID via the repository.
+     *
+     * @param id the unique ID of the lesson
+     */
+    public void deleteLessonById(long id) {
+        lessonsRepository.deleteById(id);
+    }
+
+    /**
+     * Sets the user's like state of a lesson via the repository.
+     *
+     * @param id    the unique ID of the lesson
+     * @param liked whether the lesson is liked
+     */
+    public void setLessonLiked(long id, boolean liked) {
+        lessonsRepository.setLessonLiked(userId, id, liked);
+    }
+
+    /**
+     * Sets the user's done state of a lesson via the repository.
+     *
+     * @param id   the unique ID of the lesson
+     * @param done whether the lesson is done
+     */
+    public void setLessonDone(long id, boolean done) {
+        lessonsRepository.setLessonDone(userId, id, done);
+    }
+
+    /**
+     * Retrieves the user's progress on a lesson from the repository.
+     *
+     * @param lessonId the unique ID of the lesson
+     * @return a {@link LiveData} holding the progress, or {@code null} while the lesson has none
+     */
+    public LiveData<LessonProgress> getLessonProgress(long lessonId) {
+        return lessonsRepository.getLessonProgress(userId, lessonId);
+    }
+
+    /**
+     * Retrieves a full lesson by its unique ID from the repository (the detail query).
      *
      * Since this returns {@link LiveData}, the UI can observe it
      * and automatically update if the lesson changes.
@@ -80,6 +206,16 @@ public class LessonsViewModel extends AndroidViewModel {
         return lessonsRepository.getLessonById(id);
     }
 
+    /**
+     * Loads the recipe text of a lesson via the repository.
+     *
+     * @param lessonId the unique ID of the lesson
+     * @return a {@link LiveData} holding the recipe text, or {@code null} if there is none
+     */
+    public LiveData<String> getRecipeText(long lessonId) {
+        return lessonsRepository.getRecipeText(lessonId);
+    }
+
     /**
      * Updates an existing lesson in the database via the repository.
      *
@@ -89,4 +225,23 @@ public class LessonsViewModel extends AndroidViewModel {
         lessonsRepository.update(lesson);
     }
 
+    /**
+     * Updates an existing lesson via the repository and re-stores and re-indexes its recipe text.
+     *
+     * @param lesson the {@link Lesson} object to update
+     */
+    public void updateWithRecipe(Lesson lesson) {
+        lessonsRepository.updateWithRecipe(lesson);
+    }
+
+    /**
+     * Searches lesson names, descriptions and recipe text via the repository.
+     *
+     * @param query the text typed by the user
+     * @return a {@link LiveData} list of search hits, best match first
+     */
+    public LiveData<List<LessonSearchResult>> search(String query) {
+        return lessonsRepository.search(query);
+    }
+
 }
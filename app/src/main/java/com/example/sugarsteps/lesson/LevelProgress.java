@@ -0,0 +1,59 @@
+package com.example.sugarsteps.lesson;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lesson counter of a single lesson level. Annotated as a Room entity and corresponds to the
+ * "LevelProgress" table in the underlying SQLite database.
+ *
+ * The rows are never written by the app: SQLite triggers on the Lesson table keep them up to date
+ * on every insert, update and delete (see {@link com.example.sugarsteps.DB.LevelProgressTriggers}).
+ *
+ * Features:
+ * - One row per level, so reading every level's lesson count costs O(levels), not O(lessons).
+ * - Done and liked counts are per user, see {@link UserLevelCounter}.
+ *
+ * @author Sivan Lasri
+ * @version 3.0
+ */
+
+@Entity(tableName = "LevelProgress")
+public class LevelProgress {
+
+    /**
+     * The level the counters belong to, stored as its integer code.
+     */
+    @NotNull
+    @PrimaryKey
+    @ColumnInfo(name = "level")
+    private LessonLevel level;
+
+    /** Number of lessons in the level. */
+    @ColumnInfo(name = "lesson_count")
+    private int lessonCount;
+
+    /**
+     * Creates the counter of a level. Called by Room when reading the table.
+     *
+     * @param level       the level (cannot be {@code null})
+     * @param lessonCount number of lessons in the level
+     */
+    public LevelProgress(@NotNull LessonLevel level, int lessonCount) {
+        this.level = level;
+        this.lessonCount = lessonCount;
+    }
+
+    /** @return the level the counters belong to */
+    @NotNull
+    public LessonLevel getLevel() {
+        return level;
+    }
+
+    /** @return the number of lessons in the level */
+    public int getLessonCount() {
+        return lessonCount;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.sugarsteps.lesson;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.PrimaryKey;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Recipe text of a {@link Lesson}, stored deflate-compressed. Annotated as a Room entity and
+ * corresponds to the "RecipeContent" table in the underlying SQLite database.
+ *
+ * Features:
+ * - One row per lesson, keyed by the lesson ID, so a recipe is read with a single indexed row fetch.
+ * - Deleted together with its lesson (foreign key with cascade).
+ * - Compressed with deflate; the uncompressed size is kept to size the inflate buffer.
+ *
+ * @author Sivan Lasri
+ * @version 2.0
+ */
+
+@Entity(tableName = "RecipeContent",
+        foreignKeys = @ForeignKey(entity = Lesson.class,
+                parentColumns = "lessonId",
+                childColumns = "lessonId",
+                onDelete = ForeignKey.CASCADE))
+public class RecipeContent {
+
+    /**
+     * ID of the lesson this recipe belongs to.
+     */
+    @PrimaryKey
+    @ColumnInfo(name = "lessonId")
+    public int lessonId;
+
+    /**
+     * The UTF-8 recipe text, deflate-compressed.
+     * Cannot be {@code null}.
+     */
+    @NotNull
+    @ColumnInfo(name = "content", typeAffinity = ColumnInfo.BLOB)
+    private byte[] content;
+
+    /**
+     * Size in bytes of the UTF-8 recipe text before compression.
+     */
+    @ColumnInfo(name = "text_length")
+    private int textLength;
+
+    /**
+     * Creates a recipe row. Called by Room when reading the table, use {@link #fromText(int, String)} otherwise.
+     *
+     * @param lessonId   the ID of the lesson
+     * @param content    the compressed recipe text (cannot be {@code null})
+     * @param textLength size in bytes of the uncompressed UTF-8 text
+     */
+    public RecipeContent(int lessonId, @NotNull byte[] content, int textLength) {
+        this.lessonId = lessonId;
+        this.content = content;
+        this.textLength = textLength;
+    }
+
+    /**
+     * Compresses a recipe text into a new recipe row.
+     *
+     * @param lessonId the ID of the lesson
+     * @param text     the recipe text
+     * @return the recipe row
+     */
+    public static RecipeContent fromText(int lessonId, String text) {
+        byte[] utf8 = (text == null ? "" : text).getBytes(StandardCharsets.UTF_8);
+
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        deflater.setInput(utf8);
+        deflater.finish();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(Math.max(64, utf8.length / 2));
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            outputStream.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+
+        return new RecipeContent(lessonId, outputStream.toByteArray(), utf8.length);
+    }
+
+    /**
+     * Decompresses the recipe text.
+     * A truncated, malformed or short content never blocks: it reads as an empty string.
+     *
+     * @return the recipe text, or an empty string if the stored content is corrupt
+     */
+    public String getText() {
+        if (textLength < 0) {
+            return "";
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(content);
+            byte[] utf8 = new byte[textLength];
+            int read = 0;
+            while (read < textLength && !inflater.finished()) {
+                int inflated = inflater.inflate(utf8, read, textLength - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    return ""; // Truncated: the stream ended without its final block
+                }
+                read += inflated;
+            }
+            if (read != textLength) {
+                return ""; // The stream ended before the stored size
+            }
+            return new String(utf8, 0, read, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            return "";
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /** @return the ID of the lesson this recipe belongs to */
+    public int getLessonId() {
+        return lessonId;
+    }
+
+    /** @return the compressed recipe text */
+    @NotNull
+    public byte[] getContent() {
+        return content;
+    }
+
+    /** @return size in bytes of the uncompressed UTF-8 text */
+    public int getTextLength() {
+        return textLength;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.sugarsteps.lesson;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+
+import com.example.sugarsteps.user.User;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Done and liked counters of a single user in a single lesson level. Annotated as a Room entity
+ * and corresponds to the "UserLevelCounter" table in the underlying SQLite database.
+ *
+ * The rows are never written by the app: SQLite triggers on the LessonProgress and Lesson tables
+ * keep them up to date whenever a flag is toggled, a progress row is added or removed, or a lesson
+ * moves to another level (see {@link com.example.sugarsteps.DB.LevelProgressTriggers}).
+ *
+ * Features:
+ * - One row per user and level, so a user's tab badges cost O(levels), not O(progress rows).
+ * - Composite primary key (userId, level), which also serves the per-user lookup.
+ * - Rows are deleted together with their user by a foreign key cascade.
+ *
+ * @author Sivan Lasri
+ * @version 1.0
+ */
+
+@Entity(tableName = "UserLevelCounter",
+        primaryKeys = {"userId", "level"},
+        foreignKeys = {
+                @ForeignKey(entity = User.class, parentColumns = "userId", childColumns = "userId",
+                        onDelete = ForeignKey.CASCADE)
+        })
+public class UserLevelCounter {
+
+    /** ID of the user the counters belong to. */
+    @ColumnInfo(name = "userId")
+    private int userId;
+
+    /** The level the counters belong to, stored as its integer code. */
+    @NotNull
+    @ColumnInfo(name = "level")
+    private LessonLevel level;
+
+    /** Number of lessons in the level the user marked as done. */
+    @ColumnInfo(name = "done_count")
+    private int doneCount;
+
+    /** Number of lessons in the level the user marked as liked. */
+    @ColumnInfo(name = "liked_count")
+    private int likedCount;
+
+    /**
+     * Creates the counters of a user in a level. Called by Room when reading the table.
+     *
+     * @param userId     the user's ID
+     * @param level      the level (cannot be {@code null})
+     * @param doneCount  number of done lessons in the level
+     * @param likedCount number of liked lessons in the level
+     */
+    public UserLevelCounter(int userId, @NotNull LessonLevel level, int doneCount, int likedCount) {
+        this.userId = userId;
+        this.level = level;
+        this.doneCount = doneCount;
+        this.likedCount = likedCount;
+    }
+
+    /** @return the user's ID */
+    public int getUserId() {
+        return userId;
+    }
+
+    /** @return the level the counters belong to */
+    @NotNull
+    public LessonLevel getLevel() {
+        return level;
+    }
+
+    /** @return the number of done lessons in the level */
+    public int getDoneCount() {
+        return doneCount;
+    }
+
+    /** @return the number of liked lessons in the level */
+    public int getLikedCount() {
+        return likedCount;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.sugarsteps.lesson;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Read-only progress counters of a single lesson level for a single user.
+ *
+ * Features:
+ * - Total lesson count, read from the trigger-maintained {@link LevelProgress} row.
+ * - Done and liked counts, read from the user's trigger-maintained {@link UserLevelCounter} row.
+ *
+ * @author Sivan Lasri
+ * @version 3.0
+ */
+public class UserLevelProgress {
+
+    /** The level the counters belong to. */
+    @ColumnInfo(name = "level")
+    public final LessonLevel level;
+
+    /** Number of lessons in the level. */
+    @ColumnInfo(name = "lesson_count")
+    public final int lessonCount;
+
+    /** Number of lessons in the level the user marked as done. */
+    @ColumnInfo(name = "done_count")
+    public final int doneCount;
+
+    /** Number of lessons in the level the user marked as liked. */
+    @ColumnInfo(name = "liked_count")
+    public final int likedCount;
+
+    /**
+     * Creates the counters of a level. Called by Room when reading the progress query.
+     *
+     * @param level       the level
+     * @param lessonCount number of lessons in the level
+     * @param doneCount   number of done lessons in the level
+     * @param likedCount  number of liked lessons in the level
+     */
+    public UserLevelProgress(LessonLevel level, int lessonCount, int doneCount, int likedCount) {
+        this.level = level;
+        this.lessonCount = lessonCount;
+        this.doneCount = doneCount;
+        this.likedCount = likedCount;
+    }
+
+    /** @return the level the counters belong to */
+    public LessonLevel getLevel() {
+        return level;
+    }
+
+    /** @return the number of lessons in the level */
+    public int getLessonCount() {
+        return lessonCount;
+    }
+
+    /** @return the number of done lessons in the level */
+    public int getDoneCount() {
+        return doneCount;
+    }
+
+    /** @return the number of liked lessons in the level */
+    public int getLikedCount() {
+        return likedCount;
+    }
+}
@@ -3,48 +3,60 @@ package com.example.sugarsteps.user;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
+import android.util.Log;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.splashscreen.SplashScreen;
 
+import com.example.sugarsteps.DB.DatabaseInitializer;
+import com.example.sugarsteps.DB.SugarStepsDataBase;
+import com.example.sugarsteps.lesson.CatalogSnapshot;
 import com.example.sugarsteps.lesson.LessonsListActivity;
-import com.example.sugarsteps.R;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Main entry point activity for the SugarSteps application.
  *
- * This activity serves as a splash screen that displays the app logo/branding
- * for a brief period while determining the user's registration status.
- * Based on the user's registration state, it automatically navigates to either
- * the registration flow or the main lessons list.
+ * This activity shows the platform splash screen (app icon on the pastel background) only
+ * for as long as the app is actually getting ready: the database is opened (copied from the
+ * bundled asset or migrated on the first launch) and the registered user and the first lesson
+ * page of the user's level are prefetched into a {@link CatalogSnapshot}. The lessons list
+ * binds that snapshot, so its first frame is already filled.
  *
  * Features:
- * - Splash screen functionality with branded UI
+ * - Platform splash screen (core-splashscreen), no layout of its own
+ * - Readiness-driven: no fixed delay, the splash stays up only until the data is ready
  * - Automatic user registration status detection
  * - Smart navigation routing based on user state
- * - Smooth transition to appropriate activity
+ * - Prefetches the lessons list's first page (see CatalogSnapshot)
  * - SharedPreferences integration for persistent user data
  *
  * Navigation Flow:
- * 1. Display splash screen for 1.5 seconds
+ * 1. Keep the splash screen up while the database opens and the lessons list is prefetched
  * 2. Check SharedPreferences for registration status
  * 3. Route to RegistrationActivity (if not registered) or LessonsListActivity (if registered)
  * 4. Finish current activity to prevent back navigation to splash
  *
  * @author Sivan Lasri
- * @version 6.0
+ * @version 10.0
  *
  */
 public class MainActivity extends AppCompatActivity {
 
+    private static final String TAG = "MainActivity";
+
+    private volatile boolean ready = false; // Set once the next activity is started; dismisses the splash
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(); // Awaits the database off the main thread
+
     /**
      * Called when the activity is first created.
      *
-     * Initializes the splash screen UI and sets up a delayed navigation system.
-     * The method displays the splash screen layout and uses a Handler to create
-     * a timed delay before checking user registration status and navigating
-     * to the appropriate next activity.
+     * Installs the splash screen and keeps it on screen until the database is open and the
+     * lessons list is prefetched on a background thread, then navigates to the appropriate
+     * next activity.
      *
      * @param savedInstanceState If the activity is being re-initialized after being
      *                          previously shut down, this Bundle contains the data
@@ -54,41 +66,58 @@ public class MainActivity extends AppCompatActivity {
      */
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        SplashScreen splashScreen = SplashScreen.installSplashScreen(this); // Must come before super.onCreate
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_splash);
+        splashScreen.setKeepOnScreenCondition(() -> !ready); // Checked before every frame
 
-        // Delay for 2 seconds then navigate
-        new Handler(Looper.getMainLooper()).postDelayed(new Runnable() {
-            /**
-             * Runnable executed after the splash delay period.
-             *
-             * This method is called after 1.5 seconds and performs the core routing logic:
-             * 1. Checks user registration status from SharedPreferences
-             * 2. Creates appropriate Intent based on registration state
-             * 3. Starts the target activity
-             * 4. Finishes current activity to prevent back navigation to splash
-             *
-             * Navigation Rules:
-             * - If user is registered (isRegistered = true): Navigate to LessonsListActivity
-             * - If user is not registered (isRegistered = false): Navigate to RegistrationActivity
-             */
-            @Override
-            public void run() {
-                // Check if user is registered
-                SharedPreferences prefs = getSharedPreferences("SugarStepsPref", MODE_PRIVATE);
-                boolean isRegistered = prefs.getBoolean("isRegistered", false);
+        SharedPreferences prefs = getSharedPreferences("SugarStepsPref", MODE_PRIVATE);
+        boolean isRegistered = prefs.getBoolean("isRegistered", false);
+        long userId = prefs.getLong("userId", -1);
 
-                // Navigate to appropriate activity
-                Intent intent;
+        executor.execute(() -> {
+            try {
+                SugarStepsDataBase database = DatabaseInitializer.awaitDatabase(this); // Opened since the process started
                 if (isRegistered) {
-                    intent = new Intent(MainActivity.this, LessonsListActivity.class);
-                } else {
-                    intent = new Intent(MainActivity.this, RegistrationActivity.class);
+                    CatalogSnapshot.prefetch(database, userId); // Reloads unless the initializer just loaded it
                 }
-
-                startActivity(intent);
-                finish();
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Could not prefetch the lessons list, it will load them itself", e);
             }
-        }, 1500); // 1.5 seconds delay
+            runOnUiThread(() -> navigate(isRegistered));
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        executor.shutdown();
+    }
+
+    /**
+     * Starts the next activity and finishes this one.
+     *
+     * Navigation Rules:
+     * - If user is registered (isRegistered = true): Navigate to LessonsListActivity,
+     *   which shows the prefetched {@link CatalogSnapshot} on its first frame
+     * - If user is not registered (isRegistered = false): Navigate to RegistrationActivity
+     *
+     * @param isRegistered Whether a user is registered on this device
+     */
+    private void navigate(boolean isRegistered) {
+        if (isFinishing() || isDestroyed()) {
+            return;
+        }
+
+        // Navigate to appropriate activity
+        Intent intent;
+        if (isRegistered) {
+            intent = new Intent(MainActivity.this, LessonsListActivity.class);
+        } else {
+            intent = new Intent(MainActivity.this, RegistrationActivity.class);
+        }
+
+        ready = true;
+        startActivity(intent);
+        finish();
     }
-}
\ No newline at end of file
+}
@@ -15,6 +15,8 @@ import android.widget.Spinner;
 import android.widget.Toast;
 
 import com.example.sugarsteps.R;
+import com.example.sugarsteps.ScreenReadinessTracker;
+import com.example.sugarsteps.lesson.LessonLevel;
 import com.google.android.material.button.MaterialButton;
 
 public class SettingsActivity extends AppCompatActivity {
@@ -35,10 +37,14 @@ public class SettingsActivity extends AppCompatActivity {
 
 
     private static final String KEY_BACKGROUND = "selected_background"; // For SharedPreferences Background of app
+    private static final String READY_USER = "user"; // User's fields filled, the content the screen waits for
+
+    private ScreenReadinessTracker readiness; // Reports the screen fully drawn once the user's fields are filled
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        readiness = ScreenReadinessTracker.start(this, "Settings", READY_USER);
 
         // Loading background from preferences
         SharedPreferences prefs = getSharedPreferences("SugarStepsPref", MODE_PRIVATE);
@@ -283,7 +289,7 @@ public class SettingsActivity extends AppCompatActivity {
         boolean hasChanges = false;                              // Track if any field changed
 
         String selectedGender = genderSpn.getSelectedItem().toString(); // Get selected gender string
-        String selectedLevel = levelSpn.getSelectedItem().toString();   // Get selected level string
+        LessonLevel selectedLevel = LessonLevel.fromPosition(levelSpn.getSelectedItemPosition()); // Spinner is in level order
         String enteredPhone = phoneEdt.getText().toString().trim();     // Get entered phone string
         String enteredAgeStr = ageEdt.getText().toString().trim();      // Get entered age string
 
@@ -292,7 +298,7 @@ public class SettingsActivity extends AppCompatActivity {
             hasChanges = true;                                   // Mark changes
         }
 
-        if (currentUser.getLevel() == null || !currentUser.getLevel().equals(selectedLevel)) {
+        if (currentUser.getLevel() != selectedLevel) {
             currentUser.setLevel(selectedLevel);                 // Update level if changed or null
             hasChanges = true;                                   // Mark changes
         }
@@ -413,13 +419,16 @@ public class SettingsActivity extends AppCompatActivity {
         updateRoleUI(user.getRole());                             // Update role buttons UI based on user role
         updateAgeUI(user.getAge());                               // Update age field with user age
         updatePhoneUI(user.getPhoneNumber());                     // Update phone field with user phone
-        updateSpinnerSelection(levelSpn, R.array.levels, user.getLevel(), "מתחילים"); // Select user level in spinner (skip "מתחילים")
+        if (user.getLevel() != null) {
+            levelSpn.setSelection(user.getLevel().getPosition());        // Select user level in spinner (in level order)
+        }
         updateSpinnerSelection(genderSpn, R.array.gender, user.getGender(), null);    // Select gender in spinner
 
         SharedPreferences prefs = getSharedPreferences("SugarStepsPref", MODE_PRIVATE); // Load prefs
         selectedBackground = prefs.getInt(KEY_BACKGROUND, 1);    // Load selected background
         updateBackgroundButtonsUI();                              // Update background buttons UI
         setAppBackground(selectedBackground);                     // Set background image
+        readiness.markReady(READY_USER);                          // Report the screen fully drawn
     }
 
     /**
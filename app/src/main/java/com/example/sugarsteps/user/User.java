@@ -5,17 +5,23 @@ import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 import org.jetbrains.annotations.NotNull;
 
+import com.example.sugarsteps.lesson.LessonLevel;
+
+import java.util.Objects;
+
 /**
  * User is entity in the application. Annotated with Room persistence annotations and maps to the
  * "User" table in the underlying SQLite database.
  *
  * Features:
  * - Primary key auto-generated for each user.
- * - Default values for some fields (e.g., level = "מתחילים").
+ * - Default values for some fields (e.g., level = {@link LessonLevel#BEGINNER}).
+ * - The level is stored as its integer code, shared with the lesson levels.
  * - Provides getter and setter methods for all fields.
+ * - Value equality over all columns, so streams can skip re-emissions of an unchanged row.
  *
  * @author Sivan Lasri
- * @version 5.0
+ * @version 7.0
  */
 
 @Entity(tableName = "User")
@@ -52,11 +58,11 @@ public class User {
     private String gender;
 
     /**
-     * Level of the user.
-     * Defaults to "מתחילים" (beginners).
+     * Level of the user, stored as its integer code.
+     * Defaults to {@link LessonLevel#BEGINNER}.
      */
-    @ColumnInfo(name = "level", defaultValue = "מתחילים")
-    private String level;
+    @ColumnInfo(name = "level", defaultValue = "0")
+    private LessonLevel level;
 
     /**
      * Phone number of the user (optional).
@@ -82,7 +88,7 @@ public class User {
         this.username = username;
         this.role = role;
         this.gender = null;
-        this.level = "מתחילים";  // default
+        this.level = LessonLevel.BEGINNER;  // default
         this.phoneNumber = null;
         this.age = 0;
     }
@@ -204,9 +210,9 @@ public class User {
     /**
      * Returns the level of the user.
      *
-     * @return the level (e.g., "מתחילים")
+     * @return the level (e.g., {@link LessonLevel#BEGINNER})
      */
-    public String getLevel() {
+    public LessonLevel getLevel() {
         return level;
     }
 
@@ -214,9 +220,39 @@ public class User {
     /**
      * Sets the level of the user.
      *
-     * @param level the level (e.g., "מתחילים")
+     * @param level the level (e.g., {@link LessonLevel#BEGINNER})
      */
-    public void setLevel(String level) {
+    public void setLevel(LessonLevel level) {
         this.level = level;
     }
+
+    /**
+     * Two users are equal when every column holds the same value.
+     *
+     * @param o the object to compare with
+     * @return {@code true} if {@code o} is a user with the same values
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        User user = (User) o;
+        return userId == user.userId
+                && age == user.age
+                && username.equals(user.username)
+                && role.equals(user.role)
+                && Objects.equals(gender, user.gender)
+                && Objects.equals(level, user.level)
+                && Objects.equals(phoneNumber, user.phoneNumber);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code of the user
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, username, role, gender, level, phoneNumber, age);
+    }
 }
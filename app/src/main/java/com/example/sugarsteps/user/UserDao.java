@@ -25,7 +25,7 @@ import java.util.List;
  * - Custom query methods for specific use cases
  *
  * @author Sivan Lasri
- * @version 5.0
+ * @version 7.0
  */
 @Dao
 public interface UserDao {
@@ -116,6 +116,18 @@ public interface UserDao {
     @Query("SELECT * FROM User")
     LiveData<List<User>> getAllUsers();
 
+    /**
+     * Retrieve all users synchronously, the same rows as {@link #getAllUsers()}.
+     *
+     * Measured by the DAO benchmarks without LiveData's observers.
+     * Must be called off the main thread.
+     *
+     * @return A List of all User objects in the database, empty if there are none.
+     *
+     */
+    @Query("SELECT * FROM User")
+    List<User> getAllUsersSync();
+
     /**
      * Retrieve a specific user by their unique identifier.
      *
@@ -133,6 +145,20 @@ public interface UserDao {
     @Query("SELECT * FROM User WHERE userId = :id")
     LiveData<User> getUserById(long id);
 
+    /**
+     * Retrieve a specific user by their unique identifier (synchronous operation).
+     *
+     * Used by the splash screen to load the registered user before the lessons list
+     * is shown. Must be called off the main thread.
+     *
+     * @param id The unique identifier (primary key) of the user to retrieve.
+     *
+     * @return The User object with the specified ID, or null if no such user exists.
+     *
+     */
+    @Query("SELECT * FROM User WHERE userId = :id")
+    User getUserByIdSync(long id);
+
     /**
      * Retrieve a user by their username (synchronous operation).
      *
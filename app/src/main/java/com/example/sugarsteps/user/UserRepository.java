@@ -3,7 +3,9 @@ package com.example.sugarsteps.user;
 import android.app.Application;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
 
+import com.example.sugarsteps.DB.DatabaseInitializer;
 import com.example.sugarsteps.DB.SugarStepsDataBase;
 
 import java.util.List;
@@ -18,12 +20,14 @@ import java.util.concurrent.Future;
  * Features:
  * - Retrieve all users as LiveData.
  * - Insert a new user and return the generated user ID.
- * - Retrieve a user by their ID.
+ * - Retrieve a user by their ID, emitting only when that user's row actually changes.
  * - Update existing user information.
  * - Delete a specific user or all users.
+ * - Uses the database opened at process start by {@link DatabaseInitializer}, without
+ *   waiting for it on the main thread.
  *
  * @author Sivan Lasri
- * @version 5.0
+ * @version 8.0
  */
 public class UserRepository {
 
@@ -40,8 +44,9 @@ public class UserRepository {
      * Constructor, initialize DB and DAO
      * **/
     public UserRepository(Application application) {
-        // Get the singleton instance of the Room database
-        SugarStepsDataBase db = SugarStepsDataBase.getDatabase(application);
+        // Get the Room database without waiting for the open started with the process;
+        // every query runs off the main thread, where it waits for the open if needed
+        SugarStepsDataBase db = DatabaseInitializer.getDatabase(application);
         // Get the UserDao from the database
         userDao = db.usersDao();
         // Get LiveData of all users (auto-updated on DB changes)
@@ -77,11 +82,13 @@ public class UserRepository {
 
     /**
      * Retrieves a user by their ID as LiveData.
+     * Room re-runs the query on every write to the User table, so emissions are
+     * filtered by value equality and observers only hear about real changes to this user.
      *
      * @return Id of the User
      * **/
     public LiveData<User> getUserById(long id) {
-        return userDao.getUserById(id);
+        return Transformations.distinctUntilChanged(userDao.getUserById(id));
     }
 
     /**
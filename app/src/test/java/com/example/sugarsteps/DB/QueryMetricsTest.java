@@ -0,0 +1,120 @@
+package com.example.sugarsteps.DB;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit tests of the latency histogram of {@link QueryMetrics.StatementStats}: the bucket of a
+ * latency, the bounds of a bucket, and the percentiles read from the bucket counts.
+ */
+public class QueryMetricsTest {
+
+    private static final int LAST = QueryMetrics.StatementStats.BUCKETS - 1;
+
+    @Test
+    public void bucketOf_givesLatenciesBelowFourMicrosABucketEach() {
+        for (int micros = 0; micros < 4; micros++) {
+            assertEquals(micros, QueryMetrics.StatementStats.bucketOf(micros));
+        }
+    }
+
+    @Test
+    public void bucketOf_startsFourBucketsAtEveryPowerOfTwo() {
+        for (int exponent = 2; exponent <= 32; exponent++) {
+            long power = 1L << exponent;
+            assertEquals(4 * (exponent - 1), QueryMetrics.StatementStats.bucketOf(power));
+            assertEquals(4 * (exponent - 1) - 1, QueryMetrics.StatementStats.bucketOf(power - 1));
+        }
+    }
+
+    @Test
+    public void bucketOf_splitsAPowerOfTwoInQuarters() {
+        assertEquals(4, QueryMetrics.StatementStats.bucketOf(4));
+        assertEquals(7, QueryMetrics.StatementStats.bucketOf(7));
+        assertEquals(8, QueryMetrics.StatementStats.bucketOf(8));
+        assertEquals(8, QueryMetrics.StatementStats.bucketOf(9));
+        assertEquals(9, QueryMetrics.StatementStats.bucketOf(10));
+        assertEquals(10, QueryMetrics.StatementStats.bucketOf(12));
+        assertEquals(11, QueryMetrics.StatementStats.bucketOf(15));
+        assertEquals(22, QueryMetrics.StatementStats.bucketOf(100));
+        assertEquals(35, QueryMetrics.StatementStats.bucketOf(1_000));
+    }
+
+    @Test
+    public void bucketOf_clampsAtTheLastBucket() {
+        long lastStart = 7L << 30; // 1.75 * 2^32 µs, about two hours
+        assertEquals(LAST - 1, QueryMetrics.StatementStats.bucketOf(lastStart - 1));
+        assertEquals(LAST, QueryMetrics.StatementStats.bucketOf(lastStart));
+        assertEquals(LAST, QueryMetrics.StatementStats.bucketOf(1L << 40));
+        assertEquals(LAST, QueryMetrics.StatementStats.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void upperBoundOf_isTheFirstLatencyOfTheNextBucket() {
+        assertEquals(1, QueryMetrics.StatementStats.upperBoundOf(0));
+        assertEquals(4, QueryMetrics.StatementStats.upperBoundOf(3));
+        assertEquals(5, QueryMetrics.StatementStats.upperBoundOf(4));
+        assertEquals(10, QueryMetrics.StatementStats.upperBoundOf(8));
+        assertEquals(8L << 30, QueryMetrics.StatementStats.upperBoundOf(LAST));
+        for (int bucket = 0; bucket < LAST; bucket++) {
+            long bound = QueryMetrics.StatementStats.upperBoundOf(bucket);
+            assertEquals(bucket, QueryMetrics.StatementStats.bucketOf(bound - 1));
+            assertEquals(bucket + 1, QueryMetrics.StatementStats.bucketOf(bound));
+        }
+    }
+
+    @Test
+    public void percentile_isZeroWithoutRuns() {
+        long[] counts = new long[QueryMetrics.StatementStats.BUCKETS];
+        assertEquals(0, QueryMetrics.StatementStats.percentile(counts, 0, 0.50));
+    }
+
+    @Test
+    public void percentile_returnsTheBucketHoldingTheRank() {
+        long[] counts = new long[QueryMetrics.StatementStats.BUCKETS];
+        counts[2] = 1;
+        counts[9] = 1;
+
+        // The rank is rounded up: the median of two runs is the first one
+        assertEquals(3, QueryMetrics.StatementStats.percentile(counts, 2, 0.50));
+        assertEquals(12, QueryMetrics.StatementStats.percentile(counts, 2, 0.51));
+        assertEquals(12, QueryMetrics.StatementStats.percentile(counts, 2, 0.99));
+    }
+
+    @Test
+    public void snapshot_readsPercentilesOfASkewedDistribution() {
+        QueryMetrics.StatementStats stats = new QueryMetrics.StatementStats("SELECT 1");
+        record(stats, 10, 90);     // Bucket [10, 12)
+        record(stats, 100, 5);     // Bucket [96, 112)
+        record(stats, 1_000, 4);   // Bucket [896, 1024)
+        record(stats, 10_000, 1);  // Bucket [8192, 10240)
+
+        QueryMetrics.Snapshot snapshot = stats.snapshot();
+        assertEquals(100, snapshot.count);
+        assertEquals(12, snapshot.p50Micros);
+        assertEquals(112, snapshot.p95Micros);
+        assertEquals(1_024, snapshot.p99Micros);
+        assertEquals(10_000, snapshot.maxMicros);
+    }
+
+    @Test
+    public void snapshot_readsPercentilesOfAUniformDistribution() {
+        QueryMetrics.StatementStats stats = new QueryMetrics.StatementStats("SELECT 1");
+        for (int micros = 1; micros <= 1_000; micros++) {
+            record(stats, micros, 1);
+        }
+
+        QueryMetrics.Snapshot snapshot = stats.snapshot();
+        assertEquals(512, snapshot.p50Micros);    // 500 in [448, 512)
+        assertEquals(1_024, snapshot.p95Micros);  // 950 in [896, 1024)
+        assertEquals(1_024, snapshot.p99Micros);  // 990 in [896, 1024)
+    }
+
+    // Records the same latency several times, off the main thread
+    private static void record(QueryMetrics.StatementStats stats, long micros, int times) {
+        for (int i = 0; i < times; i++) {
+            stats.record(micros * 1_000, 1, false, "test");
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.sugarsteps.lesson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests of {@link LessonMediaCollector} on a temporary files directory, with a fake
+ * {@link LessonsDao} that answers the two media path queries from an in-memory list.
+ */
+public class LessonMediaCollectorTest {
+
+    private static final long HOUR_MS = 60 * 60 * 1000L;
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final List<String> referencedPaths = new ArrayList<>(); // Paths stored in the fake Lesson table
+    private File filesDir;
+    private LessonMediaCollector collector;
+
+    @Before
+    public void setUp() throws IOException {
+        filesDir = temp.newFolder("files");
+        collector = new LessonMediaCollector(filesDir, fakeDao());
+    }
+
+    @Test
+    public void collect_keepsOrphansYoungerThanTheGracePeriod() throws IOException {
+        File recent = newFile(filesDir, "lesson_new_image.jpg", 10, 0);
+        File old = newFile(filesDir, "lesson_old_image.jpg", 20, 2 * HOUR_MS);
+
+        LessonMediaCollector.Report report = collector.collect(HOUR_MS, () -> false);
+
+        assertTrue(recent.exists());
+        assertFalse(old.exists());
+        assertEquals(1, report.filesDeleted);
+        assertEquals(20, report.bytesReclaimed);
+        assertEquals(1, report.filesKept);
+    }
+
+    @Test
+    public void collect_keepsFilesReferencedAsPathsOrFileUris() throws IOException {
+        File byPath = newFile(filesDir, "lesson_a_image.jpg", 1, 2 * HOUR_MS);
+        File byUri = newFile(filesDir, "lesson_b 1_video.mp4", 1, 2 * HOUR_MS);
+        File byEncodedUri = newFile(filesDir, "lesson_b 1_description.txt", 1, 2 * HOUR_MS);
+        File orphan = newFile(filesDir, "lesson_c_image.jpg", 1, 2 * HOUR_MS);
+        referencedPaths.add(byPath.getAbsolutePath());
+        referencedPaths.add("file://" + byUri.getAbsolutePath());      // Not a valid URI, kept as written
+        referencedPaths.add("file://" + byEncodedUri.getAbsolutePath().replace(" ", "%20")); // Like Uri.fromFile
+
+        LessonMediaCollector.Report report = collector.collect(HOUR_MS, () -> false);
+
+        assertTrue(byPath.exists());
+        assertTrue(byUri.exists());
+        assertTrue(byEncodedUri.exists());
+        assertFalse(orphan.exists());
+        assertEquals(1, report.filesDeleted);
+        assertEquals(3, report.filesKept);
+    }
+
+    @Test
+    public void collect_leavesOtherFilesAlone() throws IOException {
+        File other = newFile(filesDir, "profile.jpg", 1, 2 * HOUR_MS);
+        File nested = newFile(new File(filesDir, "lesson_dir"), "lesson_x_image.jpg", 1, 2 * HOUR_MS);
+        File outside = newFile(temp.newFolder("cache"), "lesson_x_image.jpg", 1, 2 * HOUR_MS);
+
+        LessonMediaCollector.Report report = collector.collect(HOUR_MS, () -> false);
+
+        assertTrue(other.exists());
+        assertTrue(nested.exists());
+        assertTrue(outside.exists());
+        assertEquals(0, report.filesDeleted);
+    }
+
+    @Test
+    public void collect_stopsWhenAsked() throws IOException {
+        File orphan = newFile(filesDir, "lesson_a_image.jpg", 1, 2 * HOUR_MS);
+
+        LessonMediaCollector.Report report = collector.collect(HOUR_MS, () -> true);
+
+        assertTrue(orphan.exists());
+        assertEquals(0, report.filesDeleted);
+    }
+
+    @Test
+    public void release_deletesUnreferencedFilesByPathOrFileUri() throws IOException {
+        File image = newFile(filesDir, "lesson_a_image.jpg", 5, 0);
+        File video = newFile(filesDir, "lesson_a_video.mp4", 7, 0);
+
+        LessonMediaCollector.Report report = collector.release(
+                image.getAbsolutePath(), "file://" + video.getAbsolutePath(), null, "");
+
+        assertFalse(image.exists());
+        assertFalse(video.exists());
+        assertEquals(2, report.filesDeleted);
+        assertEquals(12, report.bytesReclaimed);
+    }
+
+    @Test
+    public void release_keepsFilesAnotherLessonStillReferences() throws IOException {
+        File shared = newFile(filesDir, "lesson_shared_image.jpg", 3, 0);
+        File own = newFile(filesDir, "lesson_own_video.mp4", 4, 0);
+        referencedPaths.add(shared.getAbsolutePath());
+
+        LessonMediaCollector.Report report = collector.release(shared.getAbsolutePath(), own.getAbsolutePath());
+
+        assertTrue(shared.exists());
+        assertFalse(own.exists());
+        assertEquals(1, report.filesDeleted);
+        assertEquals(4, report.bytesReclaimed);
+        assertEquals(1, report.filesKept);
+    }
+
+    @Test
+    public void release_ignoresPathsThatAreNotLessonMedia() throws IOException {
+        File other = newFile(filesDir, "profile.jpg", 1, 0);
+        File outside = newFile(temp.newFolder("cache"), "lesson_x_image.jpg", 1, 0);
+
+        LessonMediaCollector.Report report = collector.release(other.getAbsolutePath(), outside.getAbsolutePath(),
+                "android.resource://com.example.sugarsteps/drawable/cake", "content://media/external/images/1");
+
+        assertTrue(other.exists());
+        assertTrue(outside.exists());
+        assertEquals(0, report.filesDeleted);
+        assertEquals(0, report.filesKept);
+    }
+
+    // A LessonsDao answering only the media path queries, from referencedPaths
+    private LessonsDao fakeDao() {
+        return (LessonsDao) Proxy.newProxyInstance(LessonsDao.class.getClassLoader(),
+                new Class<?>[]{LessonsDao.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getReferencedMediaPaths":
+                            return new ArrayList<>(referencedPaths);
+                        case "isMediaReferenced":
+                            return referencedPaths.contains((String) args[0]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    // Creates a file of the given size, last modified the given time ago
+    private static File newFile(File dir, String name, int size, long ageMs) throws IOException {
+        assertTrue(dir.isDirectory() || dir.mkdirs());
+        File file = new File(dir, name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[size]);
+        }
+        assertTrue(file.setLastModified(System.currentTimeMillis() - ageMs));
+        return file;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.sugarsteps.lesson;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests of the pure parts of {@link LessonSearchIndex}: the MATCH expression built from
+ * user input, and the rank decoded from FTS4 matchinfo blobs.
+ */
+public class LessonSearchIndexTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void toMatchQuery_quotesEveryWordAsPrefix() {
+        assertEquals("\"עוגת*\" \"שמרים*\"", LessonSearchIndex.toMatchQuery("עוגת שמרים"));
+        assertEquals("\"cake*\"", LessonSearchIndex.toMatchQuery("cake"));
+    }
+
+    @Test
+    public void toMatchQuery_keepsLettersMarksAndDigits() {
+        assertEquals("\"שָׁלוֹם*\" \"180*\"", LessonSearchIndex.toMatchQuery("שָׁלוֹם 180"));
+    }
+
+    @Test
+    public void toMatchQuery_splitsOnPunctuationAndWhitespace() {
+        assertEquals("\"רולדה*\" \"ריבת*\" \"חלב*\"", LessonSearchIndex.toMatchQuery("  רולדה,ריבת-חלב!\t"));
+    }
+
+    @Test
+    public void toMatchQuery_neverPassesOperatorsOrQuotes() {
+        // FTS4 operators and syntax become plain quoted terms or separators
+        assertEquals("\"a*\" \"OR*\" \"b*\"", LessonSearchIndex.toMatchQuery("a OR b"));
+        assertEquals("\"x*\" \"NEAR*\" \"3*\" \"y*\"", LessonSearchIndex.toMatchQuery("x NEAR/3 y"));
+        assertEquals("\"cake*\" \"name*\" \"x*\"", LessonSearchIndex.toMatchQuery("\"cake\" -name:x*"));
+    }
+
+    @Test
+    public void toMatchQuery_returnsEmptyWithoutWords() {
+        assertEquals("", LessonSearchIndex.toMatchQuery(null));
+        assertEquals("", LessonSearchIndex.toMatchQuery(""));
+        assertEquals("", LessonSearchIndex.toMatchQuery(" \"*()-: "));
+    }
+
+    @Test
+    public void computeRank_weightsColumnsByHitFrequency() {
+        // One phrase: 2 of its 4 name hits, 1 of its 1 description hits, no recipe hits
+        byte[] matchInfo = matchInfo(1, 3,
+                2, 4, 2,
+                1, 1, 1,
+                0, 5, 3);
+        assertEquals(3.0 * 2 / 4 + 2.0 * 1 / 1, LessonSearchIndex.computeRank(matchInfo), DELTA);
+    }
+
+    @Test
+    public void computeRank_sumsEveryPhrase() {
+        byte[] matchInfo = matchInfo(2, 3,
+                1, 2, 2,   0, 0, 0,   0, 0, 0,  // Phrase 1: half of its name hits
+                0, 3, 1,   0, 0, 0,   3, 6, 2); // Phrase 2: half of its recipe hits
+        assertEquals(3.0 * 1 / 2 + 1.0 * 3 / 6, LessonSearchIndex.computeRank(matchInfo), DELTA);
+    }
+
+    @Test
+    public void computeRank_weightsUnknownColumnsAsOne() {
+        byte[] matchInfo = matchInfo(1, 4,
+                0, 0, 0,
+                0, 0, 0,
+                0, 0, 0,
+                1, 4, 1);
+        assertEquals(1.0 / 4, LessonSearchIndex.computeRank(matchInfo), DELTA);
+    }
+
+    @Test
+    public void computeRank_isZeroWithoutUsableHits() {
+        assertEquals(0, LessonSearchIndex.computeRank(null), DELTA);
+        assertEquals(0, LessonSearchIndex.computeRank(new byte[4]), DELTA);
+        assertEquals(0, LessonSearchIndex.computeRank(matchInfo(1, 1, 2, 0, 0)), DELTA);
+    }
+
+    @Test
+    public void topMatches_keepsTheBestHitsBestFirst() {
+        List<LessonSearchMatch> matches = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            // Lesson i has i of its 100 name hits, so higher IDs rank higher
+            matches.add(new LessonSearchMatch(i, matchInfo(1, 1, i, 100, 100)));
+        }
+        Collections.shuffle(matches, new Random(42));
+
+        assertEquals(Arrays.asList(100L, 99L, 98L), LessonSearchIndex.topMatches(matches, 3));
+        assertEquals(100, LessonSearchIndex.topMatches(matches, 500).size());
+        assertEquals(Collections.emptyList(), LessonSearchIndex.topMatches(matches, 0));
+    }
+
+    @Test
+    public void topMatches_breaksTiesByLessonId() {
+        byte[] same = matchInfo(1, 1, 1, 2, 2);
+        List<LessonSearchMatch> matches = Arrays.asList(
+                new LessonSearchMatch(7, same), new LessonSearchMatch(3, same), new LessonSearchMatch(5, same));
+
+        assertEquals(Arrays.asList(3L, 5L), LessonSearchIndex.topMatches(matches, 2));
+    }
+
+    // Builds a matchinfo 'pcx' blob: phrase count, column count, then 3 values per phrase and column
+    private static byte[] matchInfo(int phrases, int columns, int... hits) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 * (2 + hits.length)).order(ByteOrder.nativeOrder());
+        buffer.putInt(phrases).putInt(columns);
+        for (int value : hits) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.sugarsteps.lesson;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests of the {@link RecipeContent} compression: round trips, and corrupt stored content,
+ * which must read as an empty string without blocking the caller.
+ */
+public class RecipeContentTest {
+
+    private static final String RECIPE = "מצרכים:\n2 כוסות קמח\n1 כוס סוכר\n3 ביצים\n\n"
+            + "אופן ההכנה:\nמערבבים הכל ואופים 30 דקות ב-180 מעלות.";
+
+    @Test
+    public void getText_returnsTheCompressedText() {
+        assertEquals(RECIPE, RecipeContent.fromText(1, RECIPE).getText());
+        assertEquals("", RecipeContent.fromText(1, "").getText());
+        assertEquals("", RecipeContent.fromText(1, null).getText());
+    }
+
+    @Test(timeout = 5_000)
+    public void getText_isEmptyForATruncatedBlob() {
+        RecipeContent stored = RecipeContent.fromText(1, RECIPE);
+        byte[] content = stored.getContent();
+        assertEquals("", new RecipeContent(1, Arrays.copyOf(content, content.length / 2), stored.getTextLength())
+                .getText());
+    }
+
+    @Test(timeout = 5_000)
+    public void getText_neverReturnsPartOfTheText() {
+        RecipeContent stored = RecipeContent.fromText(1, RECIPE);
+        byte[] content = stored.getContent();
+        for (int length = 0; length < content.length; length++) {
+            // The last bytes (end of block, checksum) are not needed to read the text itself
+            String text = new RecipeContent(1, Arrays.copyOf(content, length), stored.getTextLength()).getText();
+            assertTrue("cut at " + length, text.isEmpty() || text.equals(RECIPE));
+        }
+    }
+
+    @Test(timeout = 5_000)
+    public void getText_isEmptyForMalformedContent() {
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertEquals("", new RecipeContent(1, garbage, 100).getText());
+    }
+
+    @Test(timeout = 5_000)
+    public void getText_isEmptyWhenTheStoredSizeIsWrong() {
+        RecipeContent stored = RecipeContent.fromText(1, RECIPE);
+        assertEquals("", new RecipeContent(1, stored.getContent(), stored.getTextLength() + 10).getText());
+        assertEquals("", new RecipeContent(1, stored.getContent(), -1).getText());
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.sugarsteps.benchmark;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.sugarsteps.DB.DatabaseTuningProfile;
+import com.example.sugarsteps.DB.LevelProgressTriggers;
+import com.example.sugarsteps.DB.SugarStepsDataBase;
+import com.example.sugarsteps.DB.TimingOpenHelperFactory;
+import com.example.sugarsteps.lesson.Lesson;
+import com.example.sugarsteps.lesson.LessonLevel;
+import com.example.sugarsteps.lesson.LessonsDao;
+import com.example.sugarsteps.user.User;
+import com.example.sugarsteps.user.UserDao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds the databases measured by the DAO benchmarks, filled with reproducible data.
+ *
+ * The database is built like the app's (same entities, converters, counter triggers, query
+ * timing and the THROUGHPUT tuning profile of release builds) but is never seeded, so a table
+ * holds exactly the requested number of rows. Every row is generated from {@link #SEED}, so two
+ * runs measure the same data.
+ *
+ * The benchmarks measure the synchronous variants of the DAO's LiveData queries, which run the
+ * same SQL: observing a LiveData adds and drops Room's invalidation triggers on every read,
+ * which the app pays once per screen, not once per query.
+ */
+final class BenchmarkDatabase {
+
+    /** Seed of every generated data set and of the benchmarks' random lookups. */
+    static final long SEED = 42L;
+
+    /** Row counts every benchmark runs at. */
+    static final Integer[] SIZES = {100, 10_000, 100_000};
+
+    private static final int INSERT_BATCH = 1_000;
+    private static final LessonLevel[] LEVELS = LessonLevel.values();
+
+    private BenchmarkDatabase() {
+        // Static helpers only
+    }
+
+    /**
+     * Deletes any previous file and builds an empty database.
+     * Queries run on the calling thread.
+     *
+     * @param context the target app's context
+     * @param name    the database file name
+     * @return the open database
+     */
+    static SugarStepsDataBase open(Context context, String name) {
+        return open(context, name, DatabaseTuningProfile.THROUGHPUT);
+    }
+
+    /**
+     * Deletes any previous file and builds an empty database with the given tuning profile.
+     * Queries run on the calling thread.
+     *
+     * @param context the target app's context
+     * @param name    the database file name
+     * @param profile the SQLite tuning profile
+     * @return the open database
+     */
+    static SugarStepsDataBase open(Context context, String name, DatabaseTuningProfile profile) {
+        context.deleteDatabase(name);
+        RoomDatabase.Builder<SugarStepsDataBase> builder = Room.databaseBuilder(context, SugarStepsDataBase.class, name)
+                .addCallback(new RoomDatabase.Callback() {
+                    @Override
+                    public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                        LevelProgressTriggers.create(db); // Inserts pay for the counters, like in the app
+                    }
+                })
+                .openHelperFactory(new TimingOpenHelperFactory());
+        profile.applyTo(builder);
+        builder.setQueryExecutor(Runnable::run); // After the profile, which sets its own pool
+        return builder.build();
+    }
+
+    /**
+     * Creates the lesson generated for an index. The same index always gives the same lesson.
+     *
+     * @param index  the lesson's index in the data set
+     * @param random the data set's random source
+     * @return a new, not yet inserted lesson
+     */
+    static Lesson newLesson(int index, Random random) {
+        return new Lesson("שיעור " + index, "", "תיאור קצר " + random.nextInt(1_000), "סיון לסרי",
+                LEVELS[random.nextInt(LEVELS.length)], "", "");
+    }
+
+    /**
+     * Inserts {@code count} generated lessons, in batched transactions.
+     *
+     * @param dao   the lessons DAO
+     * @param count number of lessons
+     */
+    static void fillLessons(LessonsDao dao, int count) {
+        Random random = new Random(SEED);
+        List<Lesson> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < count; i++) {
+            batch.add(newLesson(i, random));
+            if (batch.size() == INSERT_BATCH || i == count - 1) {
+                dao.insertAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserts {@code count} generated users in one transaction. User {@code i} is named "user{i}".
+     *
+     * @param database the database
+     * @param count    number of users
+     */
+    static void fillUsers(SugarStepsDataBase database, int count) {
+        Random random = new Random(SEED);
+        UserDao dao = database.usersDao();
+        database.runInTransaction(() -> {
+            for (int i = 0; i < count; i++) {
+                User user = new User("user" + i, random.nextBoolean() ? "student" : "guide");
+                user.setLevel(LEVELS[random.nextInt(LEVELS.length)]);
+                user.setAge(18 + random.nextInt(60));
+                dao.insertUser(user);
+            }
+        });
+    }
+}
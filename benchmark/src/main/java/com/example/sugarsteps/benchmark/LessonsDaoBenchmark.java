@@ -0,0 +1,137 @@
+package com.example.sugarsteps.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sugarsteps.DB.SugarStepsDataBase;
+import com.example.sugarsteps.lesson.Lesson;
+import com.example.sugarsteps.lesson.LessonSummary;
+import com.example.sugarsteps.lesson.LessonsDao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Microbenchmarks of the {@link LessonsDao} operations, at 100, 10k and 100k lessons.
+ *
+ * Every write is undone outside the measured time, so each iteration sees a table of exactly
+ * the parameter's size. Lookups pick their IDs from a fixed-seed random source.
+ */
+@RunWith(Parameterized.class)
+public class LessonsDaoBenchmark {
+
+    private static final String DATABASE_NAME = "lessons_dao_benchmark";
+    private static final int BULK_SIZE = 100;
+
+    @Parameterized.Parameters(name = "lessons={0}")
+    public static Collection<Integer> sizes() {
+        return Arrays.asList(BenchmarkDatabase.SIZES);
+    }
+
+    @Parameterized.Parameter
+    public int lessonCount;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+    private SugarStepsDataBase database;
+    private LessonsDao dao;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = BenchmarkDatabase.open(context, DATABASE_NAME);
+        dao = database.lessonsDao();
+        BenchmarkDatabase.fillLessons(dao, lessonCount);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void insertLesson() {
+        Random random = new Random(BenchmarkDatabase.SEED);
+        BenchmarkState state = benchmarkRule.getState();
+        int index = lessonCount;
+        while (state.keepRunning()) {
+            long id = dao.insertLesson(BenchmarkDatabase.newLesson(index++, random));
+            state.pauseTiming();
+            dao.deleteLessonById(id); // Back to the parameter's size
+            state.resumeTiming();
+        }
+    }
+
+    @Test
+    public void insertAllBulk() {
+        Random random = new Random(BenchmarkDatabase.SEED);
+        List<Lesson> batch = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            batch.add(BenchmarkDatabase.newLesson(lessonCount + i, random));
+        }
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            dao.insertAll(batch);
+            state.pauseTiming();
+            database.getOpenHelper().getWritableDatabase()
+                    .execSQL("DELETE FROM Lesson WHERE lessonId > " + lessonCount); // IDs only grow
+            state.resumeTiming();
+        }
+    }
+
+    @Test
+    public void getAllLessons() {
+        List<LessonSummary> first = dao.getAllLessonSummariesSync(-1); // The SQL of getAllLessons
+        assertNotNull(first);
+        assertEquals(lessonCount, first.size());
+
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            dao.getAllLessonSummariesSync(-1);
+        }
+    }
+
+    @Test
+    public void getLessonById() {
+        assertNotNull(dao.getLessonByIdSync(1)); // The SQL of getLessonById
+
+        Random random = new Random(BenchmarkDatabase.SEED);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            dao.getLessonByIdSync(1 + random.nextInt(lessonCount));
+        }
+    }
+
+    @Test
+    public void updateLesson() {
+        Random random = new Random(BenchmarkDatabase.SEED);
+        Lesson lesson = dao.getLessonByIdSync(1 + random.nextInt(lessonCount));
+        String name = lesson.getLessonName();
+
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            lesson.setLessonName(name + (i++ % 2)); // A real change on every iteration
+            dao.updateLesson(lesson);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.sugarsteps.benchmark;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sugarsteps.DB.DatabaseTuningProfile;
+import com.example.sugarsteps.DB.SugarStepsDataBase;
+import com.example.sugarsteps.lesson.LessonLevel;
+import com.example.sugarsteps.lesson.LessonsDao;
+import com.example.sugarsteps.user.User;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * Read and write latency of every {@link DatabaseTuningProfile}, at 20k lessons.
+ *
+ * Writes: per-user like toggles of the progress table, each in its own transaction.
+ * Reads: the first page of a level's list joined with the user's progress, and single lessons
+ * by ID. Reads run on the pool's reader connections under WAL, so they show whether the
+ * profile's pragmas reached those connections too.
+ */
+@RunWith(Parameterized.class)
+public class TuningProfileBenchmark {
+
+    private static final String DATABASE_NAME = "tuning_profile_benchmark";
+    private static final int LESSON_COUNT = 20_000;
+    private static final int PAGE_SIZE = 20;
+    private static final LessonLevel[] LEVELS = LessonLevel.values();
+
+    @Parameterized.Parameters(name = "profile={0}")
+    public static Collection<DatabaseTuningProfile> profiles() {
+        return Arrays.asList(DatabaseTuningProfile.values());
+    }
+
+    @Parameterized.Parameter
+    public DatabaseTuningProfile profile;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+    private SugarStepsDataBase database;
+    private LessonsDao dao;
+    private long userId;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = BenchmarkDatabase.open(context, DATABASE_NAME, profile);
+        dao = database.lessonsDao();
+        BenchmarkDatabase.fillLessons(dao, LESSON_COUNT);
+        userId = database.usersDao().insertUser(new User("benchmark", "student"));
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void writeLike() {
+        Random random = new Random(BenchmarkDatabase.SEED);
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            dao.setLessonLiked(userId, 1 + random.nextInt(LESSON_COUNT), i++ % 2 == 0);
+        }
+    }
+
+    @Test
+    public void readPage() {
+        assertEquals(PAGE_SIZE, dao.getFirstLessonsByLevel(LEVELS[0], userId, PAGE_SIZE).size());
+
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            dao.getFirstLessonsByLevel(LEVELS[i++ % LEVELS.length], userId, PAGE_SIZE);
+        }
+    }
+
+    @Test
+    public void readById() {
+        Random random = new Random(BenchmarkDatabase.SEED);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            dao.getLessonByIdSync(1 + random.nextInt(LESSON_COUNT));
+        }
+    }
+}
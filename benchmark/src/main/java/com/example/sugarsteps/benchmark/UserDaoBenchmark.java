@@ -0,0 +1,100 @@
+package com.example.sugarsteps.benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.sugarsteps.DB.SugarStepsDataBase;
+import com.example.sugarsteps.user.User;
+import com.example.sugarsteps.user.UserDao;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Microbenchmarks of the {@link UserDao} lookups, at 100, 10k and 100k users.
+ *
+ * Users and lookups are generated from a fixed seed; user {@code i} is named "user{i}".
+ */
+@RunWith(Parameterized.class)
+public class UserDaoBenchmark {
+
+    private static final String DATABASE_NAME = "user_dao_benchmark";
+
+    @Parameterized.Parameters(name = "users={0}")
+    public static Collection<Integer> sizes() {
+        return Arrays.asList(BenchmarkDatabase.SIZES);
+    }
+
+    @Parameterized.Parameter
+    public int userCount;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+    private SugarStepsDataBase database;
+    private UserDao dao;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = BenchmarkDatabase.open(context, DATABASE_NAME);
+        dao = database.usersDao();
+        BenchmarkDatabase.fillUsers(database, userCount);
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void getUserById() {
+        assertNotNull(dao.getUserByIdSync(1)); // The SQL of getUserById
+
+        Random random = new Random(BenchmarkDatabase.SEED);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            dao.getUserByIdSync(1 + random.nextInt(userCount));
+        }
+    }
+
+    @Test
+    public void getUserByUsername() {
+        assertNotNull(dao.getUserByUsername("user0"));
+
+        Random random = new Random(BenchmarkDatabase.SEED);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            dao.getUserByUsername("user" + random.nextInt(userCount));
+        }
+    }
+
+    @Test
+    public void getAllUsers() {
+        List<User> first = dao.getAllUsersSync(); // The SQL of getAllUsers
+        assertNotNull(first);
+        assertEquals(userCount, first.size());
+
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            dao.getAllUsersSync();
+        }
+    }
+}
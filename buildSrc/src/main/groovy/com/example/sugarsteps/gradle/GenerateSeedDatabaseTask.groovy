@@ -0,0 +1,196 @@
+package com.example.sugarsteps.gradle
+
+import groovy.json.JsonSlurper
+import org.gradle.api.DefaultTask
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.RegularFileProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputDirectory
+import org.gradle.api.tasks.InputFile
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+
+import java.nio.charset.StandardCharsets
+import java.sql.Connection
+import java.sql.DriverManager
+import java.util.zip.Deflater
+
+/**
+ * Builds the prepackaged SugarSteps database asset from the Room exported schema and the seed catalog.
+ *
+ * The tables, indices and Room's identity hash come from the newest exported schema JSON, so the
+ * file passes Room's validation when copied by createFromAsset. The rows come from
+ * assets/seed_lessons.json, resolved the same way as SeedCatalogLoader does at runtime.
+ *
+ * Features:
+ * - Creates every entity, index, FTS sync trigger, view and setup query from the schema.
+ * - Inserts the seed lessons, their compressed recipes and their full-text search entries
+ *   (recipe text read from res/raw, compressed the same way as RecipeContent.fromText).
+ * - Stores each level as its LessonLevel code, the same value Room's Converters write.
+ * - Stamps the schema version as user_version, so Room opens the copy without migrating.
+ * - Creates the file in incremental auto-vacuum mode, so DatabaseMaintenanceWorker never needs
+ *   a full VACUUM to convert it.
+ *
+ * @author Sivan Lasri
+ * @version 3.0
+ */
+abstract class GenerateSeedDatabaseTask extends DefaultTask {
+
+    /** Integer code of every LessonLevel name used in the manifest. Must match LessonLevel. */
+    private static final Map<String, Integer> LEVEL_CODES = [BEGINNER: 0, ADVANCED: 1, EXPERT: 2]
+
+    /** Directory holding the Room exported schema JSON files (1.json, 2.json, ...). */
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    abstract DirectoryProperty getSchemaDir()
+
+    /** The seed catalog manifest. */
+    @InputFile
+    @PathSensitive(PathSensitivity.RELATIVE)
+    abstract RegularFileProperty getSeedManifest()
+
+    /** The res/raw directory holding the recipe text files. */
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    abstract DirectoryProperty getRawResDir()
+
+    /** Package that owns the bundled media resources. */
+    @Input
+    abstract Property<String> getPackageName()
+
+    /** Asset path of the generated database, relative to the output directory. */
+    @Input
+    abstract Property<String> getAssetPath()
+
+    /** Generated assets directory. */
+    @OutputDirectory
+    abstract DirectoryProperty getOutputDir()
+
+    @TaskAction
+    void generate() {
+        File schemaFile = schemaDir.get().asFile.listFiles()
+                .findAll { it.name ==~ /\d+\.json/ }
+                .max { (it.name - '.json') as int }
+        if (schemaFile == null) {
+            throw new IllegalStateException("No exported Room schema in ${schemaDir.get().asFile}")
+        }
+
+        def schema = new JsonSlurper().parse(schemaFile, 'UTF-8').database
+        def manifest = new JsonSlurper().parse(seedManifest.get().asFile, 'UTF-8')
+
+        File out = new File(outputDir.get().asFile, assetPath.get())
+        out.parentFile.mkdirs()
+        out.delete()
+
+        Class.forName('org.sqlite.JDBC')
+        DriverManager.getConnection("jdbc:sqlite:${out.absolutePath}").withCloseable { Connection conn ->
+            // Must be set before the first table is created
+            conn.createStatement().withCloseable { it.execute('PRAGMA auto_vacuum = INCREMENTAL') }
+            conn.autoCommit = false
+            createSchema(conn, schema)
+            insertSeed(conn, manifest.lessons as List)
+            conn.commit()
+
+            conn.autoCommit = true
+            conn.createStatement().withCloseable { it.execute("PRAGMA user_version = ${schema.version as int}") }
+            conn.createStatement().withCloseable { it.execute('VACUUM') }
+        }
+
+        logger.lifecycle("Generated ${out.name} (schema ${schema.version}, ${manifest.lessons.size()} lessons)")
+    }
+
+    /** Creates everything Room expects from the exported schema. */
+    private static void createSchema(Connection conn, def schema) {
+        conn.createStatement().withCloseable { st ->
+            schema.entities.each { entity ->
+                st.execute(entity.createSql.replace('${TABLE_NAME}', entity.tableName))
+                entity.indices?.each { st.execute(it.createSql.replace('${TABLE_NAME}', entity.tableName)) }
+                entity.contentSyncTriggers?.each { st.execute(it) }
+            }
+            schema.views?.each { st.execute(it.createSql.replace('${VIEW_NAME}', it.viewName)) }
+            schema.setupQueries.each { st.execute(it) }
+        }
+    }
+
+    /** Inserts the seed lessons, their recipes and their search entries, with IDs in manifest order. */
+    private void insertSeed(Connection conn, List lessons) {
+        def lessonSql = 'INSERT INTO Lesson (lessonId, lesson_name, lesson_photo, short_description, lesson_guide, ' +
+                'level, lesson_video, long_description) VALUES (?, ?, ?, ?, ?, ?, ?, ?)'
+        def ftsSql = 'INSERT INTO LessonFts (rowid, lesson_name, short_description, recipe_text) VALUES (?, ?, ?, ?)'
+        def recipeSql = 'INSERT INTO RecipeContent (lessonId, content, text_length) VALUES (?, ?, ?)'
+
+        conn.prepareStatement(lessonSql).withCloseable { lessonSt ->
+            conn.prepareStatement(ftsSql).withCloseable { ftsSt ->
+                conn.prepareStatement(recipeSql).withCloseable { recipeSt ->
+                    lessons.eachWithIndex { lesson, i ->
+                        int id = i + 1
+                        String recipe = readRecipe(lesson.recipe)
+                        lessonSt.setInt(1, id)
+                        lessonSt.setString(2, lesson.name ?: '')
+                        lessonSt.setString(3, toUri(lesson.photo))
+                        lessonSt.setString(4, lesson.short_description ?: '')
+                        lessonSt.setString(5, lesson.guide ?: '')
+                        lessonSt.setObject(6, levelCode(lesson.level))
+                        lessonSt.setString(7, toUri(lesson.video))
+                        lessonSt.setString(8, toUri(lesson.recipe))
+                        lessonSt.addBatch()
+
+                        ftsSt.setInt(1, id)
+                        ftsSt.setString(2, lesson.name ?: '')
+                        ftsSt.setString(3, lesson.short_description ?: '')
+                        ftsSt.setString(4, recipe)
+                        ftsSt.addBatch()
+
+                        byte[] utf8 = recipe.getBytes(StandardCharsets.UTF_8)
+                        recipeSt.setInt(1, id)
+                        recipeSt.setBytes(2, deflate(utf8))
+                        recipeSt.setInt(3, utf8.length)
+                        recipeSt.addBatch()
+                    }
+                    lessonSt.executeBatch() // Parent rows first, RecipeContent references them
+                    ftsSt.executeBatch()
+                    recipeSt.executeBatch()
+                }
+            }
+        }
+    }
+
+    /** Deflate-compresses bytes with the same settings as RecipeContent.fromText. */
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION)
+        deflater.setInput(input)
+        deflater.finish()
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        byte[] buffer = new byte[4096]
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer))
+        }
+        deflater.end()
+        return out.toByteArray()
+    }
+
+    /** Same rule as SeedCatalogLoader: "type/name" becomes a by-name android.resource URI. */
+    private String toUri(String value) {
+        if (value == null || value.isEmpty() || value.contains('://')) return value ?: ''
+        return "android.resource://${packageName.get()}/${value}"
+    }
+
+    /** Same rule as SeedCatalogLoader: a LessonLevel name becomes its integer code, a missing level stays null. */
+    private static Integer levelCode(String name) {
+        if (name == null) return null
+        Integer code = LEVEL_CODES[name]
+        if (code == null) throw new IllegalArgumentException("Unknown lesson level '${name}' in the seed catalog")
+        return code
+    }
+
+    /** Reads the text of a "raw/name" recipe resource, or an empty string if it is not bundled. */
+    private String readRecipe(String value) {
+        if (value == null || !value.startsWith('raw/')) return ''
+        String name = value.substring('raw/'.length())
+        File file = rawResDir.get().asFile.listFiles()?.find { it.name.replaceFirst(/\.[^.]*$/, '') == name }
+        return file != null ? file.getText('UTF-8') : ''
+    }
+}
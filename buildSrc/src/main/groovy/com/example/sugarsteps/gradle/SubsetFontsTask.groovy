@@ -0,0 +1,90 @@
+package com.example.sugarsteps.gradle
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.GradleException
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.provider.ListProperty
+import org.gradle.api.provider.MapProperty
+import org.gradle.api.provider.Property
+import org.gradle.api.tasks.Input
+import org.gradle.api.tasks.InputDirectory
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+import org.gradle.process.ExecOperations
+
+import javax.inject.Inject
+
+/**
+ * Subsets the bundled fonts to the characters the app shows and writes them as font resources.
+ *
+ * Run by hand to regenerate the checked-in subsets (./gradlew :app:subsetFonts), never as part of
+ * a build: the app builds from the committed resources and needs neither the sources nor pyftsubset.
+ *
+ * The full Inter files carry Cyrillic, Greek, Vietnamese and hundreds of OpenType alternates the
+ * app never uses. Subsetting with fontTools' pyftsubset keeps each weight small enough to bundle.
+ *
+ * Features:
+ * - One res/font/<name>.ttf per entry of {@link #getFonts()}, from the matching source file;
+ *   other files in res/font (the font family XMLs) are left as they are.
+ * - Keeps only the given Unicode ranges and the default OpenType layout features plus tabular digits.
+ * - Drops hinting, which Android does not use at these sizes.
+ * - Fails with the list of missing files when a source font is not checked in.
+ *
+ * @author Sivan Lasri
+ * @version 2.0
+ */
+abstract class SubsetFontsTask extends DefaultTask {
+
+    /** Directory holding the full source fonts (see app/fonts/README.md). */
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    abstract DirectoryProperty getSourceDir()
+
+    /** Source file name in {@link #getSourceDir()}, by font resource name (lowercase, no extension). */
+    @Input
+    abstract MapProperty<String, String> getFonts()
+
+    /** Unicode ranges to keep, in pyftsubset's --unicodes syntax (e.g. "U+0020-007E"). */
+    @Input
+    abstract ListProperty<String> getUnicodes()
+
+    /** The pyftsubset executable, from "pip install fonttools". */
+    @Input
+    abstract Property<String> getPyftsubset()
+
+    /** The res directory of the bundled fonts; the subsets are written to its font/ folder. */
+    @OutputDirectory
+    abstract DirectoryProperty getOutputDir()
+
+    @Inject
+    abstract ExecOperations getExecOperations()
+
+    @TaskAction
+    void subset() {
+        File source = sourceDir.get().asFile
+        List<String> missing = fonts.get().values().findAll { !new File(source, it).isFile() }
+        if (!missing.isEmpty()) {
+            throw new GradleException("Missing source fonts in ${source}: ${missing.join(', ')}. "
+                    + "See app/fonts/README.md.")
+        }
+
+        File fontDir = new File(outputDir.get().asFile, 'font')
+        fontDir.mkdirs() // Holds the font family XMLs too, only the subsets are replaced
+
+        fonts.get().each { String resourceName, String sourceName ->
+            File output = new File(fontDir, "${resourceName}.ttf")
+            execOperations.exec {
+                executable pyftsubset.get()
+                args new File(source, sourceName).absolutePath,
+                        "--unicodes=${unicodes.get().join(',')}",
+                        '--layout-features+=tnum', // Aligned digits in the progress badges
+                        '--no-hinting',
+                        '--desubroutinize',
+                        "--output-file=${output.absolutePath}"
+            }
+            logger.lifecycle("Subset ${sourceName} -> ${output.name} (${output.length()} bytes)")
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.sugarsteps.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.UiDevice;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Generates the Baseline Profile of the splash, lessons list and lesson detail journey.
+ *
+ * Needs a rooted device or an emulator image without Google Play (API 33). Run with
+ * {@code ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest
+ * -Pandroid.testInstrumentationRunnerArguments.class=com.example.sugarsteps.macrobenchmark.BaselineProfileGenerator}
+ * and copy the {@code BaselineProfileGenerator_generate-baseline-prof.txt} file from
+ * macrobenchmark/build/outputs/connected_android_test_additional_output to
+ * app/src/main/baseline-prof.txt.
+ */
+public class BaselineProfileGenerator {
+
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    private UiDevice device;
+
+    @Before
+    public void setUp() throws IOException {
+        device = UiDevice.getInstance(InstrumentationRegistry.getInstrumentation());
+        SugarStepsJourney.ensureRegistered(device);
+    }
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collectBaselineProfile(
+                SugarStepsJourney.PACKAGE_NAME,
+                Collections.emptyList(),
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    SugarStepsJourney.waitForLessonList(scope.getDevice());
+                    SugarStepsJourney.scrollLessonList(scope.getDevice());
+                    SugarStepsJourney.openFirstLesson(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
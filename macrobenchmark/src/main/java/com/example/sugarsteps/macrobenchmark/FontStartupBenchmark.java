@@ -0,0 +1,88 @@
+package com.example.sugarsteps.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.UiDevice;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Cold startup of the app with bundled fonts against the downloadable Google Fonts build.
+ *
+ * The two font setups are two builds of the app, so this runs once per build; the "fonts"
+ * instrumentation argument names the installed one in the test names of the results:
+ * {@code ./gradlew :macrobenchmark:connectedBenchmarkAndroidTest
+ * -Pandroid.testInstrumentationRunnerArguments.class=com.example.sugarsteps.macrobenchmark.FontStartupBenchmark}
+ * for the default bundled build, then the same with {@code -Pfonts=downloadable}. Each build is measured online and in airplane mode,
+ * where the font provider cannot answer.
+ */
+@RunWith(Parameterized.class)
+public class FontStartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    // Named after the installed font build, so the results of both runs can be told apart
+    @Parameterized.Parameters(name = "fonts={0},offline={1}")
+    public static Collection<Object[]> networkStates() {
+        String fonts = InstrumentationRegistry.getArguments().getString("fonts", "bundled"); // Set by -Pfonts
+        return Arrays.asList(new Object[]{fonts, false}, new Object[]{fonts, true});
+    }
+
+    @Parameterized.Parameter(0)
+    public String fonts;
+
+    @Parameterized.Parameter(1)
+    public boolean offline;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private UiDevice device;
+
+    @Before
+    public void setUp() throws IOException {
+        device = UiDevice.getInstance(InstrumentationRegistry.getInstrumentation());
+        SugarStepsJourney.ensureRegistered(device);
+        setAirplaneMode(offline);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        setAirplaneMode(false);
+    }
+
+    @Test
+    public void coldStartup() {
+        benchmarkRule.measureRepeated(
+                SugarStepsJourney.PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                new CompilationMode.Partial(), // With the Baseline Profile, as installed from Play
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> Unit.INSTANCE,
+                scope -> {
+                    scope.startActivityAndWait();
+                    SugarStepsJourney.waitForLessonList(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private void setAirplaneMode(boolean enabled) throws IOException {
+        device.executeShellCommand("cmd connectivity airplane-mode " + (enabled ? "enable" : "disable"));
+    }
+}
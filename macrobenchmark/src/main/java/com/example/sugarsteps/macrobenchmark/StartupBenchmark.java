@@ -0,0 +1,85 @@
+package com.example.sugarsteps.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.UiDevice;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Cold, warm and hot startup of the app, from the launcher icon to a filled lessons list.
+ *
+ * Reports time to initial display and, through the list's reportFullyDrawn once its first page
+ * is bound, time to full display. Each startup mode runs without any AOT compilation and with
+ * the bundled Baseline Profile, so the profile's effect shows up side by side.
+ */
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Parameterized.Parameters(name = "{0},{1}")
+    public static Collection<Object[]> modes() {
+        List<Object[]> modes = new ArrayList<>();
+        for (StartupMode startupMode : StartupMode.values()) {
+            modes.add(new Object[]{startupMode, "none"});
+            modes.add(new Object[]{startupMode, "baselineProfile"});
+        }
+        return modes;
+    }
+
+    @Parameterized.Parameter(0)
+    public StartupMode startupMode;
+
+    @Parameterized.Parameter(1)
+    public String compilation;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private UiDevice device;
+
+    @Before
+    public void setUp() throws IOException {
+        device = UiDevice.getInstance(InstrumentationRegistry.getInstrumentation());
+        SugarStepsJourney.ensureRegistered(device);
+    }
+
+    @Test
+    public void startup() {
+        CompilationMode compilationMode = "none".equals(compilation)
+                ? new CompilationMode.None()
+                : new CompilationMode.Partial(); // Requires the Baseline Profile to be installed
+
+        benchmarkRule.measureRepeated(
+                SugarStepsJourney.PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome(); // Warm and hot launches start from the background
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    SugarStepsJourney.waitForLessonList(scope.getDevice());
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.sugarsteps.macrobenchmark;
+
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.BySelector;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import java.io.IOException;
+
+/**
+ * The user journeys shared by the startup benchmarks and the Baseline Profile generator,
+ * driven through UI Automator on the app's view IDs.
+ *
+ * The app routes a fresh install to registration, so {@link #ensureRegistered} registers a
+ * student once; every later launch goes splash, lessons list, and on to a lesson.
+ */
+final class SugarStepsJourney {
+
+    static final String PACKAGE_NAME = "com.example.sugarsteps";
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private static final BySelector LESSON_LIST = By.res(PACKAGE_NAME, "recyclerview");
+    private static final BySelector LESSON_CARD = By.res(PACKAGE_NAME, "card_lesson");
+    private static final BySelector LESSON_HEADER = By.res(PACKAGE_NAME, "tx_activity_header");
+    private static final BySelector USERNAME = By.res(PACKAGE_NAME, "et_username_text");
+
+    private SugarStepsJourney() {
+    }
+
+    /**
+     * Registers a student if the app still shows registration, and dismisses the one-time
+     * welcome popup, so measured launches always land on the lessons list. Leaves the app stopped.
+     *
+     * @param device the device under test
+     */
+    static void ensureRegistered(UiDevice device) throws IOException {
+        device.executeShellCommand("am start -W -n " + PACKAGE_NAME + "/.user.MainActivity");
+        device.wait(Until.hasObject(By.pkg(PACKAGE_NAME).depth(0)), TIMEOUT_MS);
+
+        UiObject2 username = device.wait(Until.findObject(USERNAME), TIMEOUT_MS / 2);
+        if (username != null) {
+            username.setText("benchmark");
+            device.findObject(By.res(PACKAGE_NAME, "btn_registration_student")).click();
+            device.findObject(By.res(PACKAGE_NAME, "chk_declaration")).click();
+            device.wait(Until.findObject(By.res(PACKAGE_NAME, "btn_confirm")), TIMEOUT_MS).click();
+            device.wait(Until.findObject(By.res(PACKAGE_NAME, "btn_lets_go").enabled(true)), TIMEOUT_MS).click();
+        }
+
+        UiObject2 close = device.wait(Until.findObject(By.res(PACKAGE_NAME, "btn_close")), TIMEOUT_MS / 2);
+        if (close != null) {
+            close.click(); // Welcome popup, shown on the first visit of the list only
+        }
+        waitForLessonList(device);
+        device.executeShellCommand("am force-stop " + PACKAGE_NAME);
+    }
+
+    /**
+     * Waits until the lessons list shows its first lesson.
+     *
+     * @param device the device under test
+     */
+    static void waitForLessonList(UiDevice device) {
+        device.wait(Until.hasObject(LESSON_LIST), TIMEOUT_MS);
+        device.wait(Until.hasObject(LESSON_CARD), TIMEOUT_MS);
+    }
+
+    /**
+     * Scrolls the lessons list down and back, so more pages are loaded and bound.
+     *
+     * @param device the device under test
+     */
+    static void scrollLessonList(UiDevice device) {
+        UiObject2 list = device.findObject(LESSON_LIST);
+        if (list == null) {
+            return;
+        }
+        list.setGestureMargin(device.getDisplayWidth() / 5); // Keep clear of the system gesture areas
+        list.fling(Direction.DOWN);
+        device.waitForIdle();
+        list.fling(Direction.UP);
+        device.waitForIdle();
+    }
+
+    /**
+     * Opens the first lesson of the list and waits for its detail screen, then goes back.
+     *
+     * @param device the device under test
+     */
+    static void openFirstLesson(UiDevice device) {
+        UiObject2 card = device.wait(Until.findObject(LESSON_CARD), TIMEOUT_MS);
+        if (card == null) {
+            return; // Empty level
+        }
+        card.click();
+        device.wait(Until.hasObject(LESSON_HEADER), TIMEOUT_MS);
+        device.pressBack();
+        device.wait(Until.hasObject(LESSON_LIST), TIMEOUT_MS);
+    }
+}